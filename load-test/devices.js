@@ -0,0 +1,56 @@
+// Mixed read/write load against the device API, used to compare platform and virtual threads.
+//
+//   k6 run -e VUS=1000 load-test/devices.js
+//   k6 run -e VUS=5000 -e BASE_URL=http://localhost:8080 load-test/devices.js
+//
+// Reports throughput (http_reqs) and latency percentiles including p(99). All virtual users share one address and so
+// one rate limit budget; run it with rate limiting off (the default).
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '1000', 10);
+const DURATION = __ENV.DURATION || '2m';
+const SEED_DEVICES = 1000;
+const BRANDS = ['Apple', 'Samsung', 'Google', 'Xiaomi', 'Nokia'];
+
+export const options = {
+    scenarios: {
+        clients: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export function setup() {
+    const devices = [];
+    for (let i = 0; i < SEED_DEVICES; i++) {
+        devices.push({ name: `Device ${i}`, brand: BRANDS[i % BRANDS.length] });
+    }
+    const res = http.post(`${BASE_URL}/api/v1/devices/batch`, JSON.stringify(devices), {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    check(res, { 'seeded': (r) => r.status === 200 });
+    return { ids: res.json('items').map((item) => item.id).filter((id) => id !== null) };
+}
+
+export default function (data) {
+    const roll = Math.random();
+    if (roll < 0.7) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        check(http.get(`${BASE_URL}/api/v1/devices/${id}`), { 'get 200': (r) => r.status === 200 });
+    } else if (roll < 0.9) {
+        const brand = BRANDS[Math.floor(Math.random() * BRANDS.length)];
+        check(http.get(`${BASE_URL}/api/v1/devices/search?brand=${brand}&size=20`), { 'search 200': (r) => r.status === 200 });
+    } else {
+        const res = http.post(`${BASE_URL}/api/v1/devices`, JSON.stringify({ name: 'Load test', brand: 'LoadTest' }),
+            { headers: { 'Content-Type': 'application/json' } });
+        check(res, { 'create 201': (r) => r.status === 201 });
+    }
+}
@@ -0,0 +1,34 @@
+-- Shows the plans of the statements behind DeviceRepository on a seeded registry. Every plan should be an index scan
+-- (or an index-only scan) reading about as many rows as it returns; a Seq Scan on device means a query path does not
+-- scale with the registry.
+--
+--   psql -h localhost -U devices -d devices -f load-test/explain-postgres.sql
+\set ON_ERROR_STOP on
+
+\echo 'get by id (findById, findResponseById, updateById, deleteDirectlyById)'
+explain (analyze, buffers) select * from device where id = 5000000;
+
+\echo 'cursor listing (findByIdGreaterThanOrderByIdAsc)'
+explain (analyze, buffers) select * from device where id > 9000000 order by id limit 21;
+
+\echo 'exact brand search, first page and count (findAllByBrand)'
+explain (analyze, buffers) select * from device where brand = 'Brand42' order by id limit 20;
+explain (analyze, buffers) select count(*) from device where brand = 'Brand42';
+
+\echo 'exact brand cursor search (findByBrandAndIdGreaterThanOrderByIdAsc, findIdsByBrandAfter)'
+explain (analyze, buffers) select * from device where brand = 'Brand42' and id > 5000000 order by id limit 21;
+
+\echo 'several brands ignoring case (findByBrandNormalizedInAndIdGreaterThanOrderByIdAsc)'
+explain (analyze, buffers) select * from device where brand_normalized in ('brand1', 'brand2') and id > 0 order by id limit 21;
+
+\echo 'brand prefix (findByBrandNormalizedStartingWithAndIdGreaterThanOrderByIdAsc)'
+explain (analyze, buffers) select * from device where brand_normalized like 'brand99%' escape '\' and id > 0 order by id limit 21;
+
+\echo 'change feed (findModifiedAfter)'
+explain (analyze, buffers) select * from device
+where modified_at <= now() and (modified_at > now() - interval '1 hour' or (modified_at = now() - interval '1 hour' and id > 0))
+order by modified_at, id limit 101;
+
+\echo 'lookup by IDs (findResponsesByIdIn)'
+explain (analyze, buffers) select id, name, brand, created_at, version from device
+where id in (1, 10, 100, 1000, 10000, 100000, 1000000) order by id;
@@ -0,0 +1,77 @@
+// Read-heavy load against a large, pre-seeded registry (see seed-postgres.sql), covering every query path of
+// DeviceRepository: lookups by ID, cursor listing, brand search in all match modes, batch lookup and the change feed.
+//
+//   k6 run -e ROWS=10000000 load-test/registry.js
+//   k6 run -e ROWS=10000000 -e VUS=200 -e BASE_URL=http://localhost:8080 load-test/registry.js
+//
+// Each request is tagged with its query path, so the summary reports p(95) and p(99) latency per path. All virtual
+// users share one address and so one rate limit budget; run it with rate limiting off (the default).
+import http from 'k6/http';
+import { check } from 'k6';
+import encoding from 'k6/encoding';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const ROWS = parseInt(__ENV.ROWS || '10000000', 10);
+const VUS = parseInt(__ENV.VUS || '100', 10);
+const DURATION = __ENV.DURATION || '5m';
+const BRANDS = 1000;
+
+const PATHS = ['get', 'cursor', 'search', 'search_ignore_case', 'search_prefix', 'lookup', 'changes'];
+
+export const options = {
+    scenarios: {
+        clients: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: Object.assign(
+        { http_req_failed: ['rate<0.01'] },
+        // Listing the per-path metrics as thresholds makes k6 report them separately.
+        ...PATHS.map((path) => ({ [`http_req_duration{path:${path}}`]: ['p(99)<500'] }))),
+};
+
+function randomId() {
+    return 1 + Math.floor(Math.random() * ROWS);
+}
+
+function randomBrand() {
+    return Math.floor(Math.random() * BRANDS);
+}
+
+function cursorFor(id) {
+    // Cursors are the URL-safe Base64 form of the last ID, without padding.
+    return encoding.b64encode(String(id), 'rawurl');
+}
+
+function get(path, url) {
+    const res = http.get(url, { tags: { path } });
+    check(res, { [`${path} 200`]: (r) => r.status === 200 });
+}
+
+export default function () {
+    const roll = Math.random();
+    if (roll < 0.5) {
+        get('get', `${BASE_URL}/api/v1/devices/${randomId()}`);
+    } else if (roll < 0.6) {
+        get('cursor', `${BASE_URL}/api/v1/devices?after=${cursorFor(randomId())}&size=20`);
+    } else if (roll < 0.7) {
+        get('search', `${BASE_URL}/api/v1/devices/search?brand=Brand${randomBrand()}&after=${cursorFor(randomId())}&size=20`);
+    } else if (roll < 0.77) {
+        get('search_ignore_case', `${BASE_URL}/api/v1/devices/search?brand=brand${randomBrand()},BRAND${randomBrand()}&match=ignore_case&after=&size=20`);
+    } else if (roll < 0.84) {
+        get('search_prefix', `${BASE_URL}/api/v1/devices/search?brand=brand${randomBrand()}&match=prefix&after=&size=20`);
+    } else if (roll < 0.94) {
+        const ids = Array.from({ length: 100 }, randomId);
+        const res = http.post(`${BASE_URL}/api/v1/devices/lookup`, JSON.stringify(ids), {
+            headers: { 'Content-Type': 'application/json' },
+            tags: { path: 'lookup' },
+        });
+        check(res, { 'lookup 200': (r) => r.status === 200 });
+    } else {
+        const since = new Date(Date.now() - Math.random() * 30 * 24 * 3600 * 1000).toISOString().slice(0, 19);
+        get('changes', `${BASE_URL}/api/v1/devices/changes?since=${since}&size=100`);
+    }
+}
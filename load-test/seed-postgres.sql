@@ -0,0 +1,36 @@
+-- Seeds the prod (PostgreSQL) schema with a large registry for load testing; 10 million devices by default.
+-- Start the service once with the prod profile so that the migrations create the schema, then:
+--
+--   psql -h localhost -U devices -d devices -v rows=10000000 -f load-test/seed-postgres.sql
+--
+-- Devices get IDs 1..rows and are spread evenly over 1000 brands (Brand0 .. Brand999), with modification times over
+-- the last 30 days. Takes a few minutes; indexes are dropped during the insert and rebuilt afterwards.
+\set ON_ERROR_STOP on
+\if :{?rows}
+\else
+  \set rows 10000000
+\endif
+
+truncate device, device_tombstone;
+
+drop index idx_device_brand_id, idx_device_brand_normalized_id, idx_device_name, idx_device_modified_at_id,
+    idx_device_brand_normalized_pattern;
+
+insert into device (id, name, brand, brand_normalized, created_at, modified_at, version)
+select x,
+       'Device ' || x,
+       'Brand' || (x % 1000),
+       'brand' || (x % 1000),
+       now() - interval '30 days',
+       now() - (x % 2592000) * interval '1 second',
+       0
+from generate_series(1, :rows) as x;
+
+create index idx_device_brand_id on device (brand, id);
+create index idx_device_brand_normalized_id on device (brand_normalized, id);
+create index idx_device_brand_normalized_pattern on device (brand_normalized varchar_pattern_ops, id);
+create index idx_device_name on device (name);
+create index idx_device_modified_at_id on device (modified_at, id);
+
+select setval('device_seq', :rows);
+vacuum analyze device;
@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+# Startup time and first-request latency of one packaging mode, to compare modes on the same machine.
+#
+#   ./gradlew cdsArchive                       # builds build/libs/*.jar and build/startup (extracted jar + CDS archive)
+#   load-test/startup.sh jar                   # java -jar on the executable jar
+#   load-test/startup.sh extracted             # java -jar on the extracted jar
+#   load-test/startup.sh cds 10                # extracted jar with the CDS archive, 10 runs
+#
+#   ./gradlew cdsArchive -Paot                 # the same with Spring AOT processing
+#   AOT=true load-test/startup.sh cds
+#
+#   SPRING_PROFILES_ACTIVE=lazy load-test/startup.sh cds
+#
+# Each run starts a fresh JVM, waits until /actuator/health answers, sends one API request and stops the service. It
+# reports the startup time logged by Spring, the wall time from launch until the service answers, and the latency of
+# the first API request (which includes whatever was initialized lazily), then the medians over all runs. Runs use the
+# in-memory database unless SPRING_PROFILES_ACTIVE or SPRING_DATASOURCE_URL say otherwise; JAVA_OPTS is passed on.
+set -euo pipefail
+
+MODE=${1:-jar}
+RUNS=${2:-5}
+PORT=${PORT:-8080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAVA_OPTS=${JAVA_OPTS:-}
+if [[ ${AOT:-false} == true ]]; then
+    JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+fi
+
+case $MODE in
+    jar)
+        WORK_DIR=$ROOT/build/libs
+        JAR=$(ls "$WORK_DIR"/*.jar | head -n 1)
+        COMMAND=("$JAVA" $JAVA_OPTS -jar "$JAR")
+        ;;
+    extracted)
+        WORK_DIR=$ROOT/build/startup
+        COMMAND=("$JAVA" $JAVA_OPTS -jar application.jar)
+        ;;
+    cds)
+        WORK_DIR=$ROOT/build/startup
+        COMMAND=("$JAVA" -XX:SharedArchiveFile=application.jsa $JAVA_OPTS -jar application.jar)
+        ;;
+    *)
+        echo "Usage: $0 jar|extracted|cds [runs]" >&2
+        exit 1
+        ;;
+esac
+
+LOG=$(mktemp)
+PID=
+trap '[[ -n $PID ]] && kill $PID 2>/dev/null; rm -f "$LOG"' EXIT
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print (NR % 2) ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+STARTED=()
+READY=()
+FIRST=()
+printf '%-4s %14s %12s %18s\n' run 'started (ms)' 'ready (ms)' 'first request (ms)'
+for run in $(seq 1 "$RUNS"); do
+    start=$(now_ms)
+    (cd "$WORK_DIR" && exec "${COMMAND[@]}" --server.port="$PORT") > "$LOG" 2>&1 &
+    PID=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health"; do
+        if ! kill -0 $PID 2>/dev/null; then
+            cat "$LOG" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    ready=$(( $(now_ms) - start ))
+    first=$(curl -sf -o /dev/null -w '%{time_total}' \
+        "http://localhost:$PORT/api/v1/devices?page=0&size=20" | awk '{ printf "%d", $1 * 1000 }')
+    # "Started DeviceRegistryApiApplication in 2.1 seconds (process running for 2.4)"
+    started=$(sed -n 's/.*process running for \([0-9.]*\)).*/\1/p' "$LOG" | awk '{ printf "%d", $1 * 1000 }')
+    kill $PID
+    wait $PID 2>/dev/null || true
+    PID=
+
+    printf '%-4s %14s %12s %18s\n' "$run" "$started" "$ready" "$first"
+    STARTED+=("$started")
+    READY+=("$ready")
+    FIRST+=("$first")
+done
+
+printf '%-4s %14s %12s %18s\n' median \
+    "$(printf '%s\n' "${STARTED[@]}" | median)" \
+    "$(printf '%s\n' "${READY[@]}" | median)" \
+    "$(printf '%s\n' "${FIRST[@]}" | median)"
@@ -0,0 +1,55 @@
+package com.example.deviceregistryapi.benchmark;
+
+import com.example.deviceregistryapi.DeviceRegistryApiApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Starts the application without a web server against its own in-memory database, and seeds it with devices.
+ */
+final class BenchmarkContext {
+
+    /**
+     * The number of distinct brands in the seeded data. Every brand is stored as {@code Brand<n>}.
+     */
+    static final int BRANDS = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Starts the application context.
+     *
+     * @param database the name of the in-memory database, unique per benchmark class (type: {@link String})
+     * @return the running context (type: {@link ConfigurableApplicationContext})
+     */
+    static ConfigurableApplicationContext start(String database) {
+        return new SpringApplicationBuilder(DeviceRegistryApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn")
+                .run();
+    }
+
+    /**
+     * Inserts devices with IDs {@code 1..rows} in a single statement, which is much faster than going through JPA.
+     * The brands are spread evenly over {@link #BRANDS} values.
+     *
+     * @param context the running context (type: {@link ConfigurableApplicationContext})
+     * @param rows    the number of devices to insert (type: {@code int})
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("""
+                insert into device (id, name, brand, brand_normalized, created_at, modified_at, version)
+                select x, 'Device ' || x, 'Brand' || mod(x, ?), 'brand' || mod(x, ?), current_timestamp, current_timestamp, 0
+                from system_range(1, ?)
+                """, BRANDS, BRANDS, rows);
+        jdbcTemplate.execute("alter sequence device_seq restart with " + (rows + 1));
+        jdbcTemplate.execute("analyze");
+    }
+}
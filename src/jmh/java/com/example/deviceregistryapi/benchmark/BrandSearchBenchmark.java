@@ -0,0 +1,90 @@
+package com.example.deviceregistryapi.benchmark;
+
+import com.example.deviceregistryapi.dto.CursorPageDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.service.BrandMatch;
+import com.example.deviceregistryapi.service.DeviceService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures brand search latency on a large registry.
+ * <p>
+ * The {@code unindexed_*} benchmarks run the queries a search without the normalized brand column needs
+ * ({@code lower(brand) = ?}, which no index can serve), as the baseline for the indexed search modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BrandSearchBenchmark {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({"1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private DeviceService deviceService;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("brand-search-benchmark");
+        BenchmarkContext.seed(context, rows);
+        deviceService = context.getBean(DeviceService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> exact() {
+        return deviceService.getDevicesByBrand("Brand" + randomBrand(), BrandMatch.EXACT, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> ignoreCase() {
+        return deviceService.getDevicesByBrand("BRAND" + randomBrand(), BrandMatch.IGNORE_CASE, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> prefix() {
+        return deviceService.getDevicesByBrand("brand" + randomBrand(), BrandMatch.PREFIX, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> multiBrand() {
+        return deviceService.getDevicesByBrand("Brand" + randomBrand() + ",Brand" + randomBrand(), BrandMatch.EXACT, FIRST_PAGE);
+    }
+
+    @Benchmark
+    public CursorPageDTO<DeviceResponseDTO> ignoreCase_cursor() {
+        return deviceService.getDevicesByBrand("BRAND" + randomBrand(), BrandMatch.IGNORE_CASE, null, 20);
+    }
+
+    @Benchmark
+    public void unindexed_ignoreCase(Blackhole blackhole) {
+        String brand = "brand" + randomBrand();
+        blackhole.consume(jdbcTemplate.queryForList(
+                "select id, name, brand, created_at from device where lower(brand) = ? order by id offset 0 rows fetch next 20 rows only",
+                brand));
+        blackhole.consume(jdbcTemplate.queryForObject("select count(*) from device where lower(brand) = ?", Long.class, brand));
+    }
+
+    private static int randomBrand() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkContext.BRANDS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.deviceregistryapi.benchmark;
+
+import com.example.deviceregistryapi.dto.CursorPageDTO;
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.dto.DeviceRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.example.deviceregistryapi.service.DeviceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DeviceService} operations against the persistence layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceServiceBenchmark {
+
+    private static final Set<DeviceField> ID_AND_NAME = DeviceField.parse("id,name");
+    private static final PageRequest LARGE_PAGE = PageRequest.of(0, 1000, Sort.by("id"));
+
+    @Param({"100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private DeviceService deviceService;
+    private DeviceRepository deviceRepository;
+    private String deepCursor;
+    private TransactionTemplate readWriteTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("device-service-benchmark");
+        BenchmarkContext.seed(context, rows);
+        deviceService = context.getBean(DeviceService.class);
+        deviceRepository = context.getBean(DeviceRepository.class);
+        readWriteTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        // Same slice as listAllDevices_deepPage; cursors are the URL-safe Base64 form of the last ID.
+        deepCursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(rows - 20).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * A lookup of a device that is already cached.
+     */
+    @Benchmark
+    public DeviceResponseDTO getDeviceById_cached() {
+        return deviceService.getDeviceById(1L);
+    }
+
+    /**
+     * The database part of a cache miss: a primary key lookup of a random device.
+     */
+    @Benchmark
+    public DeviceResponseDTO findDeviceById_database() {
+        return deviceRepository.findById(randomId()).map(DeviceResponseDTO::new).orElseThrow();
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> listAllDevices_firstPage() {
+        return deviceService.listAllDevices(PageRequest.of(0, 20, Sort.by("id")));
+    }
+
+    /**
+     * The same page as {@link #listAllDevices_firstPage()} with {@code fields=id,name}, read as tuples without entities.
+     */
+    @Benchmark
+    public Page<DeviceResponseDTO> listAllDevices_firstPage_idAndName() {
+        return deviceService.listAllDevices(PageRequest.of(0, 20, Sort.by("id")), ID_AND_NAME);
+    }
+
+    /**
+     * A page of 1000 devices in the service's read-only transaction: no snapshots are kept and nothing is flushed.
+     */
+    @Benchmark
+    public Page<DeviceResponseDTO> listAllDevices_largePage() {
+        return deviceService.listAllDevices(LARGE_PAGE);
+    }
+
+    /**
+     * The same page inside a read-write transaction, as before reads were marked read-only: Hibernate keeps a snapshot
+     * of every loaded device and dirty-checks all of them on commit. Run with {@code -PjmhProfilers=gc} to compare
+     * the allocation per operation as well.
+     */
+    @Benchmark
+    public Page<DeviceResponseDTO> listAllDevices_largePage_readWrite() {
+        return readWriteTransaction.execute(status -> deviceService.listAllDevices(LARGE_PAGE));
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> listAllDevices_deepPage() {
+        return deviceService.listAllDevices(PageRequest.of(rows / 20 - 1, 20, Sort.by("id")));
+    }
+
+    @Benchmark
+    public CursorPageDTO<DeviceResponseDTO> listAllDevices_deepCursor() {
+        return deviceService.listAllDevices(deepCursor, 20);
+    }
+
+    @Benchmark
+    public Page<DeviceResponseDTO> getDevicesByBrand() {
+        return deviceService.getDevicesByBrand("Brand" + randomBrand(), PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public DeviceResponseDTO addDevice() {
+        return deviceService.addDevice(new DeviceRequestDTO("Benchmark device", "Brand" + randomBrand()));
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+
+    private static int randomBrand() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkContext.BRANDS);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.deviceregistryapi.benchmark;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.exception.ApiError;
+import com.example.deviceregistryapi.exception.GlobalExceptionHandler;
+import com.example.deviceregistryapi.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the not-found path: creating the {@link ResourceNotFoundException} thrown for an unknown ID and turning it
+ * into a response in {@link GlobalExceptionHandler}, including its logging and error counter.
+ * <p>
+ * The {@code former} benchmarks repeat what the path did before it was made cheaper, for comparison in the same run: an
+ * exception with a stack trace and a {@code String.format} message, logged at ERROR level on every request, and the
+ * error counter looked up in the registry. The {@code Throughput} benchmarks run the path on four threads at once, like
+ * a storm of requests for unknown IDs.
+ * <p>
+ * Log output goes to {@code build/jmh/benchmark.log} (see {@code logback.xml} of the benchmark source set).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(ExceptionHandlerBenchmark.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler(meterRegistry,
+            new Binder(new MapConfigurationPropertySource()).bindOrCreate("device-registry", DeviceRegistryProperties.class));
+
+    @Benchmark
+    public RuntimeException formerCreateException() {
+        return new RuntimeException(String.format("Device with id %d not found", nextId()));
+    }
+
+    @Benchmark
+    public ResourceNotFoundException createException() {
+        return new ResourceNotFoundException("Device", nextId());
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> formerThrowAndHandle() {
+        try {
+            throw new RuntimeException(String.format("Device with id %d not found", nextId()));
+        } catch (RuntimeException ex) {
+            return formerHandle(ex);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> throwAndHandle() {
+        try {
+            throw new ResourceNotFoundException("Device", nextId());
+        } catch (ResourceNotFoundException ex) {
+            return handler.handleResourceNotFound(ex);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public ResponseEntity<ApiError> formerThrowAndHandleConcurrently() {
+        return formerThrowAndHandle();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(4)
+    public ResponseEntity<ApiError> throwAndHandleConcurrently() {
+        return throwAndHandle();
+    }
+
+    private ResponseEntity<ApiError> formerHandle(RuntimeException ex) {
+        log.error("ResourceNotFoundException: {}", ex.getMessage());
+        meterRegistry.counter("device.api.errors",
+                "exception", "ResourceNotFoundException",
+                "status", Integer.toString(HttpStatus.NOT_FOUND.value())).increment();
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.NOT_FOUND.value(),
+                HttpStatus.NOT_FOUND.getReasonPhrase(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    private static long nextId() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+}
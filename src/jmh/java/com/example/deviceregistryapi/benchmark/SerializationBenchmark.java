@@ -0,0 +1,108 @@
+package com.example.deviceregistryapi.benchmark;
+
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseSerializer;
+import com.example.deviceregistryapi.model.Device;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures building {@link DeviceResponseDTO}s from entities and writing a page of them as JSON, the way the
+ * controller responds to list and search requests: as a {@link PageImpl} with Jackson's default serializers (the
+ * former path), and as a {@link PagedModel} with {@link DeviceResponseSerializer} (the lean format clients may ask
+ * for), uncompressed and gzip compressed like the server does. The size of each response, in bytes on the wire, is printed at the start of a trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper leanObjectMapper;
+    private List<Device> devices;
+    private Page<DeviceResponseDTO> page;
+    private PagedModel<DeviceResponseDTO> pagedModel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Configured like the ObjectMapper that Spring Boot provides to Spring MVC.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        leanObjectMapper = Jackson2ObjectMapperBuilder.json()
+                .serializerByType(DeviceResponseDTO.class, new DeviceResponseSerializer())
+                .build();
+        LocalDateTime createdAt = LocalDateTime.now();
+        devices = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> {
+                    Device device = new Device("Device " + id, "Brand" + id % 100);
+                    device.setId(id);
+                    device.setCreatedAt(createdAt);
+                    return device;
+                })
+                .toList();
+        page = new PageImpl<>(devices.stream().map(DeviceResponseDTO::new).toList(), PageRequest.of(0, pageSize), 1_000_000);
+        pagedModel = new PagedModel<>(page);
+
+        System.out.printf("%n%d devices: page %d bytes (%d gzip), lean page %d bytes (%d gzip)%n", pageSize,
+                writePage().length, writePageGzip().length, writeLeanPage().length, writeLeanPageGzip().length);
+    }
+
+    @Benchmark
+    public List<DeviceResponseDTO> toResponseDTOs() {
+        return devices.stream().map(DeviceResponseDTO::new).toList();
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writePageGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, page);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] writeLeanPage() throws JsonProcessingException {
+        return leanObjectMapper.writeValueAsBytes(pagedModel);
+    }
+
+    @Benchmark
+    public byte[] writeLeanPageGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            leanObjectMapper.writeValue(out, pagedModel);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] toResponseDTOsAndWritePage() throws JsonProcessingException {
+        List<DeviceResponseDTO> content = devices.stream().map(DeviceResponseDTO::new).toList();
+        return objectMapper.writeValueAsBytes(new PageImpl<>(content, PageRequest.of(0, pageSize), 1_000_000));
+    }
+}
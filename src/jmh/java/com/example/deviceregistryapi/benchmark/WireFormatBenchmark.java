@@ -0,0 +1,92 @@
+package com.example.deviceregistryapi.benchmark;
+
+import com.example.deviceregistryapi.dto.DeviceRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseSerializer;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Compares JSON and CBOR for the documents machine clients exchange most: writing and reading a page of devices (as the
+ * server and a client do for listings) and a device request. The size of each document in both formats is printed at
+ * the start of a trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor"})
+    private String format;
+
+    @Param({"20", "1000"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PagedModel<DeviceResponseDTO> page;
+    private byte[] pageBytes;
+    private DeviceRequestDTO request;
+    private byte[] requestBytes;
+
+    /**
+     * The part of a page a client reads.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record ClientPage(List<DeviceResponseDTO> content) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Configured like the mappers of the JSON and CBOR message converters.
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .serializerByType(DeviceResponseDTO.class, new DeviceResponseSerializer());
+        objectMapper = format.equals("cbor") ? builder.factory(new CBORFactory()).build() : builder.build();
+
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<DeviceResponseDTO> devices = LongStream.rangeClosed(1, pageSize)
+                .mapToObj(id -> new DeviceResponseDTO(id, "Device " + id, "Brand" + id % 100, createdAt))
+                .toList();
+        page = new PagedModel<>(new PageImpl<>(devices, PageRequest.of(0, pageSize), 1_000_000));
+        pageBytes = objectMapper.writeValueAsBytes(page);
+        request = new DeviceRequestDTO("Device 1", "Brand1");
+        requestBytes = objectMapper.writeValueAsBytes(request);
+
+        System.out.printf("%n%s: page of %d devices %d bytes, request %d bytes%n",
+                format, pageSize, pageBytes.length, requestBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public ClientPage readPage() throws IOException {
+        return objectMapper.readValue(pageBytes, ClientPage.class);
+    }
+
+    @Benchmark
+    public byte[] writeRequest() throws IOException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public DeviceRequestDTO readRequest() throws IOException {
+        return objectMapper.readValue(requestBytes, DeviceRequestDTO.class);
+    }
+}
@@ -2,10 +2,14 @@ package com.example.deviceregistryapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class DeviceRegistryApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,158 @@
+package com.example.deviceregistryapi.cache;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * An in-process cache of devices by ID, including a short-lived cache of IDs that do not exist.
+ * <p>
+ * Writes are applied after the surrounding transaction commits, so readers never see uncommitted data. Only writes
+ * made through this instance are applied; those of other instances show up once the entries expire.
+ * Reads only fill absent entries, so a lookup that raced with an update cannot overwrite the newer value.
+ * Hit, miss and eviction counts are published as the {@code devices} and {@code devices.missing} caches.
+ * <p>
+ * Concurrent loads of the same uncached device are coalesced with a {@link SingleFlight}. Writes detach a load in
+ * flight once they commit, so that a reader arriving after a write never shares a load that started before it.
+ */
+@Component
+public class DeviceCache implements MeterBinder {
+
+    private final Cache<Long, DeviceResponseDTO> devices;
+    private final Cache<Long, Boolean> missing;
+    private final SingleFlight<Long, DeviceResponseDTO> loads = new SingleFlight<>("getDeviceById");
+
+    public DeviceCache(DeviceRegistryProperties properties) {
+        DeviceRegistryProperties.Cache config = properties.cache();
+        this.devices = Caffeine.newBuilder()
+                .maximumSize(config.maximumSize())
+                .expireAfterWrite(config.ttl())
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(config.negativeMaximumSize())
+                .expireAfterWrite(config.negativeTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param id the ID of the device (type: {@link Long})
+     * @return the cached device, or {@code null} if it is not cached (type: {@link DeviceResponseDTO})
+     */
+    public DeviceResponseDTO get(Long id) {
+        return devices.getIfPresent(id);
+    }
+
+    /**
+     * @param id the ID of the device (type: {@link Long})
+     * @return whether the device was recently looked up and not found
+     */
+    public boolean isMissing(Long id) {
+        return missing.getIfPresent(id) != null;
+    }
+
+    /**
+     * Loads a device that is not cached. Concurrent callers for the same ID share a single load.
+     *
+     * @param id     the ID of the device (type: {@link Long})
+     * @param loader reads the device from the database and caches the outcome (type: {@link Supplier}<{@link DeviceResponseDTO}>)
+     * @return the loaded device (type: {@link DeviceResponseDTO})
+     */
+    public DeviceResponseDTO load(Long id, Supplier<DeviceResponseDTO> loader) {
+        return loads.execute(id, loader);
+    }
+
+    /**
+     * Caches a device that was read from the database, unless a newer value was cached in the meantime.
+     *
+     * @param device the device read from the database (type: {@link DeviceResponseDTO})
+     */
+    public void putLoaded(DeviceResponseDTO device) {
+        devices.asMap().putIfAbsent(device.id(), device);
+    }
+
+    /**
+     * Remembers that a device does not exist.
+     *
+     * @param id the ID that was not found (type: {@link Long})
+     */
+    public void putMissing(Long id) {
+        missing.put(id, Boolean.TRUE);
+    }
+
+    /**
+     * Caches a device that was written, once the current transaction commits.
+     *
+     * @param device the written device (type: {@link DeviceResponseDTO})
+     */
+    public void putWritten(DeviceResponseDTO device) {
+        afterCommit(() -> {
+            missing.invalidate(device.id());
+            devices.put(device.id(), device);
+            loads.forget(device.id());
+        });
+    }
+
+    /**
+     * Forgets that devices were missing, once the current transaction commits. Used when devices are created.
+     *
+     * @param ids the IDs of the created devices (type: {@link Collection}<{@link Long}>)
+     */
+    public void evictMissing(Collection<Long> ids) {
+        afterCommit(() -> {
+            missing.invalidateAll(ids);
+            ids.forEach(loads::forget);
+        });
+    }
+
+    /**
+     * Removes a device from the cache, once the current transaction commits.
+     *
+     * @param id the ID of the changed or deleted device (type: {@link Long})
+     */
+    public void evict(Long id) {
+        afterCommit(() -> {
+            devices.invalidate(id);
+            loads.forget(id);
+        });
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        devices.invalidateAll();
+        missing.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, devices, "devices");
+        CaffeineCacheMetrics.monitor(registry, missing, "devices.missing");
+        loads.bindTo(registry);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
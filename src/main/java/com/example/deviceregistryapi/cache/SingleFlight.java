@@ -0,0 +1,120 @@
+package com.example.deviceregistryapi.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: while a read for a key is in flight, callers asking for the same key wait for
+ * it and share its result (or its exception) instead of running the same query again. Nothing is kept once the read
+ * completes, so a caller arriving afterwards starts a new read.
+ * <p>
+ * A caller that joins a read in flight may get a result that is older than a write committed while it was waiting;
+ * writers that need later reads to see their write call {@link #forget(Object)} after committing.
+ * <p>
+ * Calls are published as {@code device.coalescing.calls}, tagged with the operation and whether the call ran the
+ * read ({@code executed}) or shared one in flight ({@code collapsed}).
+ *
+ * @param <K> the type of the read key; must implement {@code equals} and {@code hashCode}
+ * @param <V> the type of the result
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String operation;
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+
+    /**
+     * @param operation the name of the coalesced read, used as the {@code operation} tag
+     */
+    public SingleFlight(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Runs the read, or waits for an identical read that is already in flight.
+     *
+     * @param key    identifies the read; equal keys must produce equal results (type: {@code K})
+     * @param reader performs the read (type: {@link Supplier}<{@code V}>)
+     * @return the result of the read (type: {@code V})
+     */
+    public V execute(K key, Supplier<V> reader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            collapsed.increment();
+            return join(existing);
+        }
+        executed.increment();
+        try {
+            V value = reader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Detaches the read in flight for a key, if any; callers arriving afterwards start a new read. Callers already
+     * waiting still get its result.
+     *
+     * @param key the key of the read (type: {@code K})
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * @return the number of calls that ran their read
+     */
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    /**
+     * @return the number of calls that shared a read already in flight
+     */
+    public long getCollapsed() {
+        return collapsed.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, executed, "executed");
+        register(registry, collapsed, "collapsed");
+    }
+
+    private void register(MeterRegistry registry, LongAdder count, String result) {
+        FunctionCounter.builder("device.coalescing.calls", count, LongAdder::sum)
+                .description("Reads that queried the database or shared an identical query in flight")
+                .tags("operation", operation, "result", result)
+                .register(registry);
+    }
+
+    private static <V> V join(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException ex) {
+            // The exception of the reader, thrown again in this caller.
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw ex;
+        }
+    }
+}
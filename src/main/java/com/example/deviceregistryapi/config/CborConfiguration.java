@@ -0,0 +1,24 @@
+package com.example.deviceregistryapi.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Reads and writes CBOR (RFC 8949) for clients that send or accept {@code application/cbor}, a binary encoding of the
+ * same documents as the JSON API that is smaller and cheaper to parse.
+ * <p>
+ * Spring MVC registers a CBOR converter of its own when Jackson's CBOR format is present, but with a plain mapper. This
+ * one replaces it in the same position, after the JSON converter, so that JSON stays the default, and is built from
+ * Spring Boot's mapper builder, so that pages, dates and {@code DeviceResponseSerializer} behave as in JSON.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CborConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
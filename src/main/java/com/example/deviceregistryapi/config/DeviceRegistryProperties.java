@@ -0,0 +1,189 @@
+package com.example.deviceregistryapi.config;
+
+import com.example.deviceregistryapi.event.OverflowPolicy;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Application specific settings bound from the {@code device-registry} prefix.
+ *
+ * @param batch        settings for bulk device operations
+ * @param pagination   settings for cursor based pagination
+ * @param cache        settings for the device cache
+ * @param changes      settings for the device change feed
+ * @param events       settings for the device event stream
+ * @param diagnostics  settings for runtime diagnostics
+ * @param jobs         settings for background jobs
+ * @param lookup       settings for looking up many devices by ID
+ * @param rateLimit    settings for limiting the request rate of each client
+ * @param loadShedding settings for rejecting requests while the service is overloaded
+ * @param index        settings for the in-memory device index
+ * @param replica      settings for the optional read replica
+ */
+@ConfigurationProperties(prefix = "device-registry")
+@Validated
+public record DeviceRegistryProperties(@DefaultValue Batch batch,
+                                       @DefaultValue Pagination pagination,
+                                       @DefaultValue Cache cache,
+                                       @DefaultValue Changes changes,
+                                       @DefaultValue Events events,
+                                       @DefaultValue Diagnostics diagnostics,
+                                       @DefaultValue Jobs jobs,
+                                       @DefaultValue Lookup lookup,
+                                       @DefaultValue @Valid RateLimit rateLimit,
+                                       @DefaultValue LoadShedding loadShedding,
+                                       @DefaultValue Index index,
+                                       @DefaultValue Replica replica) {
+
+    /**
+     * @param chunkSize   number of devices written per transaction
+     * @param maxItems    maximum number of devices accepted in a single batch request
+     * @param maxLineSize longest accepted line of a newline-delimited JSON batch; longer lines are skipped unread
+     */
+    public record Batch(@DefaultValue("500") int chunkSize,
+                        @DefaultValue("10000") int maxItems,
+                        @DefaultValue("16KB") DataSize maxLineSize) {
+    }
+
+    /**
+     * @param maxPageSize upper bound for the {@code size} of a cursor page
+     */
+    public record Pagination(@DefaultValue("1000") int maxPageSize) {
+    }
+
+    /**
+     * @param maximumSize         maximum number of cached devices
+     * @param ttl                 how long a cached device is kept; other instances' writes show up only after it
+     * @param negativeMaximumSize maximum number of cached lookups of unknown IDs
+     * @param negativeTtl         how long a lookup of an unknown ID is kept
+     */
+    public record Cache(@DefaultValue("100000") long maximumSize,
+                        @DefaultValue("5s") Duration ttl,
+                        @DefaultValue("100000") long negativeMaximumSize,
+                        @DefaultValue("5s") Duration negativeTtl) {
+    }
+
+    /**
+     * @param safetyLag          changes younger than this are held back, so that transactions which committed late
+     *                           with an earlier timestamp are not skipped by a poll
+     * @param tombstoneRetention how long deletions are kept for the change feed; consumers polling less often than
+     *                           this must do a full sync
+     */
+    public record Changes(@DefaultValue("2s") Duration safetyLag,
+                          @DefaultValue("30d") Duration tombstoneRetention) {
+    }
+
+    /**
+     * @param subscriberBufferSize maximum number of events buffered for a subscriber that is not keeping up
+     * @param overflowPolicy       what happens when a subscriber buffer is full
+     * @param replayBufferSize     number of recent events kept for clients resuming with {@code Last-Event-ID}
+     * @param dispatchThreads      number of threads writing events to subscribers
+     * @param timeout              how long a stream stays open before the client has to reconnect
+     */
+    public record Events(@DefaultValue("256") int subscriberBufferSize,
+                         @DefaultValue("DROP_OLDEST") OverflowPolicy overflowPolicy,
+                         @DefaultValue("1000") int replayBufferSize,
+                         @DefaultValue("4") int dispatchThreads,
+                         @DefaultValue("30m") Duration timeout) {
+    }
+
+    /**
+     * @param pinnedThreshold  virtual threads pinned to their carrier for longer than this are reported
+     * @param errorLogInterval client errors of the same type (e.g. unknown IDs) are logged at most once per interval
+     */
+    public record Diagnostics(@DefaultValue("20ms") Duration pinnedThreshold,
+                              @DefaultValue("10s") Duration errorLogInterval) {
+    }
+
+    /**
+     * @param concurrency      number of jobs running at the same time, and so the most database connections jobs use
+     * @param queueCapacity    number of jobs waiting to run before new jobs are rejected
+     * @param retention        how long finished jobs and their results are kept
+     * @param maxThrottleDelay how long a job waits before its next chunk while requests are waiting for a connection
+     * @param maxImportItems   maximum number of devices read from a single import
+     * @param maxImportSize    maximum size of an import body; larger bodies are rejected before the job is queued
+     * @param maxImportErrors  number of failed lines an import reports individually; all are counted
+     */
+    public record Jobs(@DefaultValue("2") int concurrency,
+                       @DefaultValue("100") int queueCapacity,
+                       @DefaultValue("1h") Duration retention,
+                       @DefaultValue("1s") Duration maxThrottleDelay,
+                       @DefaultValue("1000000") int maxImportItems,
+                       @DefaultValue("256MB") DataSize maxImportSize,
+                       @DefaultValue("100") int maxImportErrors) {
+    }
+
+    /**
+     * @param maxIds    maximum number of IDs accepted in a single lookup request
+     * @param chunkSize maximum number of IDs in the {@code IN} list of a single query
+     */
+    public record Lookup(@DefaultValue("1000") int maxIds,
+                         @DefaultValue("500") int chunkSize) {
+    }
+
+    /**
+     * Reads ({@code GET}, {@code HEAD}, {@code OPTIONS}) and writes have separate budgets. A client may send up to
+     * the burst size at once; after that its budget refills at the given rate.
+     *
+     * Clients are identified by their authenticated principal, or by their address without one. Behind a proxy, the
+     * address is only the client's if {@code server.forward-headers-strategy} is set.
+     *
+     * @param enabled         whether requests are rate limited
+     * @param readsPerSecond  the sustained read rate of a client
+     * @param readBurst       the number of reads a client may send at once
+     * @param writesPerSecond the sustained write rate of a client
+     * @param writeBurst      the number of writes a client may send at once
+     * @param maxClients      maximum number of clients tracked; the least recently seen are dropped first
+     */
+    public record RateLimit(@DefaultValue("false") boolean enabled,
+                            @DefaultValue("200") @Positive int readsPerSecond,
+                            @DefaultValue("400") @Positive int readBurst,
+                            @DefaultValue("50") @Positive int writesPerSecond,
+                            @DefaultValue("100") @Positive int writeBurst,
+                            @DefaultValue("100000") @Positive long maxClients) {
+    }
+
+    /**
+     * @param enabled     whether requests are shed under overload
+     * @param maxInFlight maximum number of API requests handled at the same time
+     * @param maxPoolWait while acquiring a database connection takes longer than this on average, a growing share of
+     *                    requests is rejected
+     */
+    public record LoadShedding(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("1000") int maxInFlight,
+                               @DefaultValue("500ms") Duration maxPoolWait) {
+    }
+
+    /**
+     * @param enabled         whether lookups by ID and brand searches are served from an in-memory copy of the registry
+     * @param initialCapacity number of devices the index has room for before it grows
+     * @param warmUpChunkSize number of devices read per query while filling the index
+     * @param maxNamesSize    most memory for the names of all devices; beyond it the index gives up and reads go to the
+     *                        database (at most 2GB, the largest array)
+     */
+    public record Index(@DefaultValue("false") boolean enabled,
+                        @DefaultValue("100000") int initialCapacity,
+                        @DefaultValue("10000") int warmUpChunkSize,
+                        @DefaultValue("1GB") DataSize maxNamesSize) {
+    }
+
+    /**
+     * @param jdbcUrl URL of the read replica; the pool itself is configured by {@link ReplicaDataSourceConfiguration}
+     */
+    public record Replica(String jdbcUrl) {
+
+        /**
+         * @return whether read-only transactions go to a read replica
+         */
+        public boolean isConfigured() {
+            return StringUtils.hasText(jdbcUrl);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.deviceregistryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a read replica, when {@code device-registry.replica.jdbc-url} is set.
+ * <p>
+ * The primary pool is configured from {@code spring.datasource} as usual and the replica pool from
+ * {@code device-registry.replica} (any Hikari setting, e.g. {@code maximum-pool-size}). Both are wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which only takes a physical connection on the first statement; by then a
+ * transaction has marked the connection read-only or not, and the proxy takes it from the replica or the primary pool
+ * accordingly. Transactions that never run a statement take no connection at all.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "device-registry.replica", name = "jdbc-url")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (StringUtils.hasText(properties.getName())) {
+            dataSource.setPoolName(properties.getName());
+        }
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("device-registry.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.deviceregistryapi.controller;
+
+/**
+ * Reads the {@code Accept-Encoding} header of a request. A coding is accepted if the header names it, or {@code *}
+ * when it does not, with a quality value above 0; {@code gzip;q=0} rules gzip out.
+ */
+final class ContentCodings {
+
+    private ContentCodings() {
+    }
+
+    /**
+     * @param acceptEncoding the {@code Accept-Encoding} header, or {@code null} (type: {@link String})
+     * @return whether a gzip compressed response is acceptable
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double any = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim();
+            double quality = quality(parts);
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                any = Math.max(any, quality);
+            }
+        }
+        return (gzip >= 0 ? gzip : any) > 0;
+    }
+
+    /**
+     * Gets the {@code q} parameter of a header element. A malformed value rules the coding out.
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q'
+                    && parameter.substring(1).trim().startsWith("=")) {
+                try {
+                    double quality = Double.parseDouble(parameter.substring(parameter.indexOf('=') + 1).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -1,14 +1,43 @@
 package com.example.deviceregistryapi.controller;
 
+import com.example.deviceregistryapi.dto.BatchResultDTO;
+import com.example.deviceregistryapi.dto.BulkResultDTO;
+import com.example.deviceregistryapi.dto.BulkUpdateRequestDTO;
+import com.example.deviceregistryapi.dto.ChangeFeedDTO;
+import com.example.deviceregistryapi.dto.CursorPageDTO;
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.dto.DeviceFilterDTO;
+import com.example.deviceregistryapi.dto.DeviceLookupDTO;
 import com.example.deviceregistryapi.dto.DeviceRequestDTO;
 import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEventBroadcaster;
+import com.example.deviceregistryapi.service.BrandMatch;
+import com.example.deviceregistryapi.service.DeviceBatchService;
+import com.example.deviceregistryapi.service.DeviceChangeFeedService;
+import com.example.deviceregistryapi.service.DeviceExportService;
 import com.example.deviceregistryapi.service.DeviceService;
+import com.example.deviceregistryapi.service.ExportFormat;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This controller manages all HTTP requests related to devices.
@@ -20,39 +49,126 @@ import org.springframework.web.bind.annotation.*;
 public class DeviceController {
 
     private final DeviceService deviceService;
+    private final DeviceBatchService deviceBatchService;
+    private final DeviceExportService deviceExportService;
+    private final DeviceChangeFeedService deviceChangeFeedService;
+    private final DeviceEventBroadcaster deviceEventBroadcaster;
 
     /**
      * Adds a new device.
      *
      * @param deviceRequestDTO the data for the new device (type: {@link DeviceRequestDTO})
-     * @return the created device data (type: {@link DeviceResponseDTO})
+     * @return the created device data, with its version as {@code ETag} (type: {@link DeviceResponseDTO})
      */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public DeviceResponseDTO addDevice(@RequestBody @Valid DeviceRequestDTO deviceRequestDTO) {
-        return deviceService.addDevice(deviceRequestDTO);
+    public ResponseEntity<DeviceResponseDTO> addDevice(@RequestBody @Valid DeviceRequestDTO deviceRequestDTO) {
+        DeviceResponseDTO device = deviceService.addDevice(deviceRequestDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(DeviceETags.of(device.version())).body(device);
+    }
+
+    /**
+     * Adds many devices in one request.
+     *
+     * @param deviceRequestDTOs the data for the new devices (type: {@link List}<{@link DeviceRequestDTO}>)
+     * @return a per-item summary of the batch (type: {@link BatchResultDTO})
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public BatchResultDTO addDevices(@RequestBody List<DeviceRequestDTO> deviceRequestDTOs) {
+        return deviceBatchService.addDevices(deviceRequestDTOs);
+    }
+
+    /**
+     * Adds many devices from a newline-delimited JSON stream.
+     *
+     * @param body the request body with one device per line (type: {@link InputStream})
+     * @return a per-item summary of the batch (type: {@link BatchResultDTO})
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public BatchResultDTO addDevicesFromNdjson(InputStream body) throws IOException {
+        return deviceBatchService.addDevices(body);
+    }
+
+    /**
+     * Updates many devices at once, selected by ID or by brand, for example to rename a brand.
+     *
+     * @param request the devices to update and the new values (type: {@link BulkUpdateRequestDTO})
+     * @return the number of updated devices and the IDs that were not found (type: {@link BulkResultDTO})
+     */
+    @PostMapping("/batch/update")
+    public BulkResultDTO updateDevices(@RequestBody BulkUpdateRequestDTO request) {
+        return deviceBatchService.updateDevices(request);
     }
 
     /**
-     * Gets a device by its ID.
+     * Deletes many devices at once, selected by ID or by brand.
      *
-     * @param id the ID of the device (type: {@link Long})
-     * @return the found device data (type: {@link DeviceResponseDTO})
+     * @param filter the devices to delete (type: {@link DeviceFilterDTO})
+     * @return the number of deleted devices and the IDs that were not found (type: {@link BulkResultDTO})
+     */
+    @PostMapping("/batch/delete")
+    public BulkResultDTO deleteDevices(@RequestBody DeviceFilterDTO filter) {
+        return deviceBatchService.deleteDevices(filter);
+    }
+
+    /**
+     * Gets a device by its ID. If the client already has the current version ({@code If-None-Match}),
+     * {@code 304 Not Modified} is returned without a body.
+     *
+     * @param id         the ID of the device (type: {@link Long})
+     * @param fields     the comma separated fields to return, or all fields if absent (type: {@link String})
+     * @param webRequest the current request, used to evaluate {@code If-None-Match} (type: {@link WebRequest})
+     * @return the found device data, with its version and any selected fields as {@code ETag} (type: {@link DeviceResponseDTO})
      */
     @GetMapping("/{id}")
-    public DeviceResponseDTO getDeviceById(@PathVariable Long id) {
-        return deviceService.getDeviceById(id);
+    public ResponseEntity<DeviceResponseDTO> getDeviceById(@PathVariable Long id,
+                                                           @RequestParam(required = false) String fields,
+                                                           WebRequest webRequest) {
+        Set<DeviceField> selected = DeviceField.parse(fields);
+        DeviceResponseDTO device = deviceService.getDeviceById(id);
+        String eTag = DeviceETags.of(device.version(), selected);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(DeviceField.isAll(selected) ? device : device.withOnly(selected));
+    }
+
+    /**
+     * Gets many devices by their IDs in one request.
+     *
+     * @param ids the IDs of the devices (type: {@link List}<{@link Long}>)
+     * @return the found devices in request order, and the IDs that were not found (type: {@link DeviceLookupDTO})
+     */
+    @PostMapping("/lookup")
+    public DeviceLookupDTO getDevicesByIds(@RequestBody List<Long> ids) {
+        return deviceService.getDevicesByIds(ids);
     }
 
     /**
      * Lists all devices with pagination.
      *
      * @param pageable the pagination details (type: {@link Pageable})
+     * @param fields   the comma separated fields to return, or all fields if absent (type: {@link String})
      * @return a page of devices (type: {@link Page}<{@link DeviceResponseDTO}>)
      */
     @GetMapping
-    public Page<DeviceResponseDTO> listAllDevices(Pageable pageable) {
-        return deviceService.listAllDevices(pageable);
+    public Page<DeviceResponseDTO> listAllDevices(Pageable pageable, @RequestParam(required = false) String fields) {
+        return deviceService.listAllDevices(pageable, DeviceField.parse(fields));
+    }
+
+    /**
+     * Lists all devices with cursor based pagination, which avoids the count query and offset scans of deep pages.
+     *
+     * @param after  the cursor of the previous slice, or empty for the first slice (type: {@link String})
+     * @param size   the maximum number of devices to return (type: {@code int})
+     * @param fields the comma separated fields to return, or all fields if absent (type: {@link String})
+     * @return a slice of devices (type: {@link CursorPageDTO}<{@link DeviceResponseDTO}>)
+     */
+    @GetMapping(params = "after")
+    public CursorPageDTO<DeviceResponseDTO> listAllDevices(@RequestParam(defaultValue = "") String after,
+                                                           @RequestParam(defaultValue = "20") int size,
+                                                           @RequestParam(required = false) String fields) {
+        return deviceService.listAllDevices(after, size, DeviceField.parse(fields));
     }
 
     /**
@@ -60,11 +176,15 @@ public class DeviceController {
      *
      * @param id               the ID of the device to update (type: {@link Long})
      * @param deviceRequestDTO the new data for the device (type: {@link DeviceRequestDTO})
-     * @return the updated device data (type: {@link DeviceResponseDTO})
+     * @param ifMatch          the {@code ETag} the device must still have, if any (type: {@link String})
+     * @return the updated device data, with its new version as {@code ETag} (type: {@link DeviceResponseDTO})
      */
     @PutMapping("/{id}")
-    public DeviceResponseDTO updateDevice(@PathVariable Long id, @RequestBody @Valid DeviceRequestDTO deviceRequestDTO) {
-        return deviceService.updateDevice(id, deviceRequestDTO);
+    public ResponseEntity<DeviceResponseDTO> updateDevice(@PathVariable Long id,
+                                                          @RequestBody @Valid DeviceRequestDTO deviceRequestDTO,
+                                                          @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        DeviceResponseDTO device = deviceService.updateDevice(id, deviceRequestDTO, DeviceETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(DeviceETags.of(device.version())).body(device);
     }
 
     /**
@@ -72,34 +192,135 @@ public class DeviceController {
      *
      * @param id               the ID of the device to update (type: {@link Long})
      * @param deviceRequestDTO the partial data to update (type: {@link DeviceRequestDTO})
-     * @return the updated device data (type: {@link DeviceResponseDTO})
+     * @param ifMatch          the {@code ETag} the device must still have, if any (type: {@link String})
+     * @return the updated device data, with its new version as {@code ETag} (type: {@link DeviceResponseDTO})
      */
     @PatchMapping("/{id}")
-    public DeviceResponseDTO partialUpdateDevice(@PathVariable Long id, @RequestBody DeviceRequestDTO deviceRequestDTO) {
-        return deviceService.partialUpdateDevice(id, deviceRequestDTO);
+    public ResponseEntity<DeviceResponseDTO> partialUpdateDevice(@PathVariable Long id,
+                                                                 @RequestBody DeviceRequestDTO deviceRequestDTO,
+                                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        DeviceResponseDTO device = deviceService.partialUpdateDevice(id, deviceRequestDTO, DeviceETags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(DeviceETags.of(device.version())).body(device);
     }
 
     /**
      * Deletes a device by its ID.
      *
-     * @param id the ID of the device to delete (type: {@link Long})
+     * @param id      the ID of the device to delete (type: {@link Long})
+     * @param ifMatch the {@code ETag} the device must still have, if any (type: {@link String})
      */
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteDevice(@PathVariable Long id) {
-        deviceService.deleteDevice(id);
+    public void deleteDevice(@PathVariable Long id,
+                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        deviceService.deleteDevice(id, DeviceETags.expectedVersion(ifMatch));
     }
 
     /**
      * Searches for devices by their brand.
+     * Several brands may be given separated by commas, and matched exactly, ignoring case, or by prefix.
      *
-     * @param brand    the brand name to search for (type: {@link String})
+     * @param brand    the brand names or prefix to search for (type: {@link String})
+     * @param match    how the brand is matched: {@code exact}, {@code ignore_case} or {@code prefix} (type: {@link String})
      * @param pageable the pagination details (type: {@link Pageable})
+     * @param fields   the comma separated fields to return, or all fields if absent (type: {@link String})
      * @return a page of devices matching the brand (type: {@link Page}<{@link DeviceResponseDTO}>)
      */
     @GetMapping("/search")
-    public Page<DeviceResponseDTO> getDevicesByBrand(@RequestParam String brand, Pageable pageable) {
-        return deviceService.getDevicesByBrand(brand, pageable);
+    public Page<DeviceResponseDTO> getDevicesByBrand(@RequestParam String brand,
+                                                     @RequestParam(defaultValue = "exact") String match,
+                                                     Pageable pageable,
+                                                     @RequestParam(required = false) String fields) {
+        return deviceService.getDevicesByBrand(brand, BrandMatch.fromName(match), pageable, DeviceField.parse(fields));
+    }
+
+    /**
+     * Searches for devices by their brand with cursor based pagination.
+     *
+     * @param brand  the brand names or prefix to search for (type: {@link String})
+     * @param match  how the brand is matched: {@code exact}, {@code ignore_case} or {@code prefix} (type: {@link String})
+     * @param after  the cursor of the previous slice, or empty for the first slice (type: {@link String})
+     * @param size   the maximum number of devices to return (type: {@code int})
+     * @param fields the comma separated fields to return, or all fields if absent (type: {@link String})
+     * @return a slice of devices matching the brand (type: {@link CursorPageDTO}<{@link DeviceResponseDTO}>)
+     */
+    @GetMapping(value = "/search", params = "after")
+    public CursorPageDTO<DeviceResponseDTO> getDevicesByBrand(@RequestParam String brand,
+                                                              @RequestParam(defaultValue = "exact") String match,
+                                                              @RequestParam(defaultValue = "") String after,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(required = false) String fields) {
+        return deviceService.getDevicesByBrand(brand, BrandMatch.fromName(match), after, size, DeviceField.parse(fields));
+    }
+
+    /**
+     * Streams all devices, optionally filtered, as NDJSON or CSV.
+     * The response is gzip compressed when the client accepts it, as stated by {@code Accept-Encoding} including its
+     * quality values.
+     *
+     * @param format         the export format, {@code ndjson} or {@code csv} (type: {@link String})
+     * @param brand          only export devices of this brand (type: {@link String})
+     * @param modifiedFrom   only export devices modified at or after this time (type: {@link LocalDateTime})
+     * @param modifiedTo     only export devices modified before this time (type: {@link LocalDateTime})
+     * @param acceptEncoding the encodings accepted by the client (type: {@link String})
+     * @return the streamed export (type: {@link ResponseEntity}<{@link StreamingResponseBody}>)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportDevices(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedTo,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        boolean gzip = ContentCodings.acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("devices." + exportFormat.getFileExtension())
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192);
+                deviceExportService.export(exportFormat, brand, modifiedFrom, modifiedTo, gzipOut);
+                gzipOut.finish();
+            } else {
+                deviceExportService.export(exportFormat, brand, modifiedFrom, modifiedTo, out);
+            }
+        });
+    }
+
+    /**
+     * Gets the devices created, updated or deleted since a point in time or since the previous poll.
+     *
+     * @param since the time from which changes are returned when no cursor is given (type: {@link LocalDateTime})
+     * @param after the cursor returned by the previous poll (type: {@link String})
+     * @param size  the maximum number of changes to return (type: {@code int})
+     * @return the changes ordered by time (type: {@link ChangeFeedDTO})
+     */
+    @GetMapping("/changes")
+    public ChangeFeedDTO getChanges(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                    @RequestParam(defaultValue = "") String after,
+                                    @RequestParam(defaultValue = "100") int size) {
+        return deviceChangeFeedService.getChanges(since, after, size);
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of device creations, updates and deletions.
+     * Clients reconnecting with {@code Last-Event-ID} receive the events they missed.
+     *
+     * @param lastEventId the ID of the last event received before reconnecting (type: {@link Long})
+     * @return the event stream (type: {@link SseEmitter})
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return deviceEventBroadcaster.subscribe(lastEventId);
     }
 
 }
@@ -0,0 +1,68 @@
+package com.example.deviceregistryapi.controller;
+
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.exception.PreconditionFailedException;
+
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Converts between device versions and the entity tags sent in {@code ETag} and {@code If-Match} headers.
+ * A device's entity tag is its version in quotes, for example {@code "3"}. A representation with only some of the
+ * {@link DeviceField fields} has a tag of its own that also names them, for example {@code "3;id;name"}, so that a
+ * cache never answers a request for one selection with another.
+ */
+final class DeviceETags {
+
+    private DeviceETags() {
+    }
+
+    /**
+     * @param version the version of the device (type: {@link Long})
+     * @return the entity tag of the device (type: {@link String})
+     */
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param version the version of the device (type: {@link Long})
+     * @param fields  the fields of the representation (type: {@link Set}<{@link DeviceField}>)
+     * @return the entity tag of the representation (type: {@link String})
+     */
+    static String of(Long version, Set<DeviceField> fields) {
+        if (DeviceField.isAll(fields)) {
+            return of(version);
+        }
+        StringJoiner tag = new StringJoiner(";", "\"", "\"").add(Long.toString(version));
+        fields.forEach(field -> tag.add(field.getAttribute()));
+        return tag.toString();
+    }
+
+    /**
+     * Gets the version a write is conditional on. Weak tags and the tags of representations with only some fields are
+     * compared like the tag of the whole device, since they carry the same version.
+     *
+     * @param ifMatch the {@code If-Match} header, or {@code null} (type: {@link String})
+     * @return the expected version, or {@code null} if the write is unconditional (type: {@link Long})
+     * @throws PreconditionFailedException if the header does not name a single device version
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+                throw new NumberFormatException();
+            }
+            int end = tag.indexOf(';');
+            return Long.parseLong(tag.substring(1, end < 0 ? tag.length() - 1 : end));
+        } catch (NumberFormatException ex) {
+            throw new PreconditionFailedException(String.format("If-Match %s does not match the device", ifMatch));
+        }
+    }
+}
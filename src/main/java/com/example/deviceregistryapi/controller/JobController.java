@@ -0,0 +1,137 @@
+package com.example.deviceregistryapi.controller;
+
+import com.example.deviceregistryapi.dto.BulkUpdateRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceFilterDTO;
+import com.example.deviceregistryapi.dto.JobDTO;
+import com.example.deviceregistryapi.job.ExportFile;
+import com.example.deviceregistryapi.job.JobService;
+import com.example.deviceregistryapi.service.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+/**
+ * This controller manages background jobs for long-running registry operations.
+ * Submitting a job returns {@code 202 Accepted} with the location of the job, which is polled for its progress.
+ */
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class JobController {
+
+    private final JobService jobService;
+
+    /**
+     * Submits an import of devices from a newline-delimited JSON body.
+     *
+     * @param body the request body with one device per line (type: {@link InputStream})
+     * @return the queued job (type: {@link JobDTO})
+     * @throws IOException if the request body cannot be stored
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<JobDTO> submitImport(InputStream body) throws IOException {
+        return accepted(jobService.submitImport(body));
+    }
+
+    /**
+     * Submits an export of devices, optionally filtered, as NDJSON or CSV.
+     *
+     * @param format       the export format, {@code ndjson} or {@code csv} (type: {@link String})
+     * @param brand        only export devices of this brand (type: {@link String})
+     * @param modifiedFrom only export devices modified at or after this time (type: {@link LocalDateTime})
+     * @param modifiedTo   only export devices modified before this time (type: {@link LocalDateTime})
+     * @return the queued job (type: {@link JobDTO})
+     * @throws IOException if the export file cannot be created
+     */
+    @PostMapping("/export")
+    public ResponseEntity<JobDTO> submitExport(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedTo)
+            throws IOException {
+        return accepted(jobService.submitExport(ExportFormat.fromName(format), brand, modifiedFrom, modifiedTo));
+    }
+
+    /**
+     * Submits a bulk update of devices selected by ID or by brand.
+     *
+     * @param request the devices to update and the new values (type: {@link BulkUpdateRequestDTO})
+     * @return the queued job (type: {@link JobDTO})
+     */
+    @PostMapping("/bulk-update")
+    public ResponseEntity<JobDTO> submitBulkUpdate(@RequestBody BulkUpdateRequestDTO request) {
+        return accepted(jobService.submitBulkUpdate(request));
+    }
+
+    /**
+     * Submits a bulk delete of devices selected by ID or by brand.
+     *
+     * @param filter the devices to delete (type: {@link DeviceFilterDTO})
+     * @return the queued job (type: {@link JobDTO})
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<JobDTO> submitBulkDelete(@RequestBody DeviceFilterDTO filter) {
+        return accepted(jobService.submitBulkDelete(filter));
+    }
+
+    /**
+     * Gets the status and progress of a job.
+     *
+     * @param id the ID of the job (type: {@link String})
+     * @return the job (type: {@link JobDTO})
+     */
+    @GetMapping("/{id}")
+    public JobDTO getJob(@PathVariable String id) {
+        return jobService.getJob(id);
+    }
+
+    /**
+     * Cancels a job. Chunks a running job has already committed are kept.
+     *
+     * @param id the ID of the job (type: {@link String})
+     * @return the job (type: {@link JobDTO})
+     */
+    @DeleteMapping("/{id}")
+    public JobDTO cancelJob(@PathVariable String id) {
+        return jobService.cancelJob(id);
+    }
+
+    /**
+     * Downloads the file of a succeeded export job.
+     *
+     * @param id the ID of the job (type: {@link String})
+     * @return the export file (type: {@link Resource})
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getExportFile(@PathVariable String id) {
+        ExportFile file = jobService.getExportFile(id);
+        return ResponseEntity.ok()
+                .contentType(file.format().getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("devices." + file.format().getFileExtension())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file.path()));
+    }
+
+    private ResponseEntity<JobDTO> accepted(JobDTO job) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/v1/jobs/{id}")
+                        .buildAndExpand(job.id())
+                        .toUri())
+                .body(job);
+    }
+}
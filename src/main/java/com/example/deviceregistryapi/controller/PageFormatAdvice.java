@@ -0,0 +1,38 @@
+package com.example.deviceregistryapi.controller;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Writes pages in the lean format for clients that accept {@value #LEAN_PAGE_JSON_VALUE}: the content plus a
+ * {@code page} object with the page number, size and totals, without the {@code pageable} and {@code sort} details.
+ * Other clients get pages in the default format, so existing clients keep working.
+ */
+@ControllerAdvice
+public class PageFormatAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String LEAN_PAGE_JSON_VALUE = "application/vnd.device-registry.page+json";
+    public static final MediaType LEAN_PAGE_JSON = MediaType.parseMediaType(LEAN_PAGE_JSON_VALUE);
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return Page.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body instanceof Page<?> page && LEAN_PAGE_JSON.isCompatibleWith(selectedContentType)) {
+            return new PagedModel<>(page);
+        }
+        return body;
+    }
+}
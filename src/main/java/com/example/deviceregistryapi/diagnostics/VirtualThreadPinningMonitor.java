@@ -0,0 +1,99 @@
+package com.example.deviceregistryapi.diagnostics;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, typically while blocking inside a
+ * {@code synchronized} block or a native frame. Pinned threads occupy one of the few carrier threads and can stall
+ * every other request.
+ * <p>
+ * Only active when virtual threads are enabled. Pinning events longer than the configured threshold are read from
+ * JFR in-process, counted as {@code jvm.threads.virtual.pinned}, and each distinct stack is logged once.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle, MeterBinder {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    private static final int MAX_REPORTED_STACKS = 200;
+
+    private final Duration threshold;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(DeviceRegistryProperties properties) {
+        this.threshold = properties.diagnostics().pinnedThreshold();
+    }
+
+    @Override
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("jvm.threads.virtual.pinned", pinnedCount, AtomicLong::get)
+                .description("Virtual threads pinned to their carrier for longer than the reporting threshold")
+                .register(registry);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        String stack = describe(event.getStackTrace());
+        if (reportedStacks.size() < MAX_REPORTED_STACKS && reportedStacks.add(stack)) {
+            log.warn("Virtual thread pinned for {} ms at:\n{}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    private String describe(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t<no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(this::describe)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private String describe(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
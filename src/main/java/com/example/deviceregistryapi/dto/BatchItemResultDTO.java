@@ -0,0 +1,18 @@
+package com.example.deviceregistryapi.dto;
+
+/**
+ * The outcome of a single item within a batch request.
+ * Either {@code id} is set (the item was stored) or {@code error} describes why it was rejected.
+ */
+public record BatchItemResultDTO(int index,
+                                 Long id,
+                                 String error) {
+
+    public static BatchItemResultDTO success(int index, Long id) {
+        return new BatchItemResultDTO(index, id, null);
+    }
+
+    public static BatchItemResultDTO failure(int index, String error) {
+        return new BatchItemResultDTO(index, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.List;
+
+/**
+ * A summary of a batch request, with one result per submitted item in submission order. The result of an import job
+ * lists only its first failed items; the counts cover all of them.
+ * {@code truncated} tells that a streamed batch went on beyond the maximum number of items; the rest was not read.
+ */
+public record BatchResultDTO(int total,
+                             int succeeded,
+                             int failed,
+                             boolean truncated,
+                             List<BatchItemResultDTO> items) {
+}
@@ -0,0 +1,11 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.List;
+
+/**
+ * A summary of a bulk update or delete.
+ * {@code notFound} lists the requested IDs that did not exist; it is always empty for brand filters.
+ */
+public record BulkResultDTO(int affected,
+                            List<Long> notFound) {
+}
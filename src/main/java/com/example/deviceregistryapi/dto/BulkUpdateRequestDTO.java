@@ -0,0 +1,9 @@
+package com.example.deviceregistryapi.dto;
+
+/**
+ * A request to update many devices at once.
+ * The non-blank fields of {@code set} are applied to every device selected by {@code filter}.
+ */
+public record BulkUpdateRequestDTO(DeviceFilterDTO filter,
+                                   DeviceRequestDTO set) {
+}
@@ -0,0 +1,13 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.List;
+
+/**
+ * A batch of the device change feed, ordered by the time of the change.
+ * Pass {@code nextCursor} as the {@code after} parameter of the next poll. It is always set, even when there are no
+ * changes yet; {@code hasMore} tells whether further changes can be fetched right away.
+ */
+public record ChangeFeedDTO(List<DeviceChangeDTO> changes,
+                            String nextCursor,
+                            boolean hasMore) {
+}
@@ -0,0 +1,12 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.List;
+
+/**
+ * A slice of results for cursor based (keyset) pagination.
+ * Pass {@code nextCursor} as the {@code after} parameter to get the next slice; it is {@code null} on the last slice.
+ */
+public record CursorPageDTO<T>(List<T> content,
+                               int size,
+                               String nextCursor) {
+}
@@ -0,0 +1,29 @@
+package com.example.deviceregistryapi.dto;
+
+import com.example.deviceregistryapi.model.Device;
+import com.example.deviceregistryapi.model.DeviceTombstone;
+
+import java.time.LocalDateTime;
+
+/**
+ * A single entry of the device change feed.
+ * For an {@code UPSERT} the current device data is included; for a {@code DELETE} only the ID is known.
+ */
+public record DeviceChangeDTO(ChangeType type,
+                              Long id,
+                              LocalDateTime changedAt,
+                              DeviceResponseDTO device) {
+
+    public enum ChangeType {
+        UPSERT,
+        DELETE
+    }
+
+    public static DeviceChangeDTO upsert(Device device) {
+        return new DeviceChangeDTO(ChangeType.UPSERT, device.getId(), device.getModifiedAt(), new DeviceResponseDTO(device));
+    }
+
+    public static DeviceChangeDTO delete(DeviceTombstone tombstone) {
+        return new DeviceChangeDTO(ChangeType.DELETE, tombstone.getDeviceId(), tombstone.getDeletedAt(), null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The fields of a {@link DeviceResponseDTO} that a client can select with the {@code fields} parameter.
+ * Each field has the same name as the {@code Device} attribute it is read from.
+ */
+public enum DeviceField {
+
+    ID("id"),
+    NAME("name"),
+    BRAND("brand"),
+    CREATED_AT("createdAt");
+
+    private final String attribute;
+
+    DeviceField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses a comma separated list of field names, e.g. {@code id,name}.
+     * The ID is always included, since it identifies the device and positions cursors.
+     *
+     * @param fields the field names, or {@code null} or empty for all fields (type: {@link String})
+     * @return the selected fields (type: {@link Set}<{@link DeviceField}>)
+     * @throws IllegalArgumentException if a field is not supported
+     */
+    public static Set<DeviceField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(DeviceField.class);
+        }
+        Set<DeviceField> selected = EnumSet.of(ID);
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .forEach(name -> selected.add(fromName(name)));
+        return selected;
+    }
+
+    /**
+     * @param fields the selected fields (type: {@link Set}<{@link DeviceField}>)
+     * @return whether all fields are selected
+     */
+    public static boolean isAll(Set<DeviceField> fields) {
+        return fields.size() == values().length;
+    }
+
+    private static DeviceField fromName(String name) {
+        return Arrays.stream(values())
+                .filter(field -> field.attribute.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported device field: %s", name)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.List;
+
+/**
+ * Selects the devices a bulk operation applies to: either a list of IDs or all devices of a brand (matched exactly).
+ */
+public record DeviceFilterDTO(List<Long> ids,
+                              String brand) {
+}
@@ -0,0 +1,11 @@
+package com.example.deviceregistryapi.dto;
+
+import java.util.List;
+
+/**
+ * The result of looking up many devices by ID.
+ * {@code devices} are in the order of the requested IDs; {@code notFound} lists the requested IDs that do not exist.
+ */
+public record DeviceLookupDTO(List<DeviceResponseDTO> devices,
+                              List<Long> notFound) {
+}
@@ -1,19 +1,46 @@
 package com.example.deviceregistryapi.dto;
 
 import com.example.deviceregistryapi.model.Device;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
 /**
  * A response object for sending device data to the client.
- * Contains all fields that define a device.
+ * Contains all fields that define a device. The version is not part of the body; it is sent as the {@code ETag}.
+ * Fields that were not selected (see {@link DeviceField}) are {@code null} and left out of the body.
+ * It is written as JSON by {@link DeviceResponseSerializer}.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record DeviceResponseDTO(Long id,
                                 String name,
                                 String brand,
-                                LocalDateTime createdAt) {
+                                LocalDateTime createdAt,
+                                @JsonIgnore Long version) {
 
     public DeviceResponseDTO(Device device) {
-        this(device.getId(), device.getName(), device.getBrand(), device.getCreatedAt());
+        this(device.getId(), device.getName(), device.getBrand(), device.getCreatedAt(), device.getVersion());
+    }
+
+    /**
+     * Creates a device response without a version, for listings that do not need one.
+     */
+    public DeviceResponseDTO(Long id, String name, String brand, LocalDateTime createdAt) {
+        this(id, name, brand, createdAt, null);
+    }
+
+    /**
+     * @param fields the fields to keep (type: {@link Set}<{@link DeviceField}>)
+     * @return a copy with only the given fields and the version (type: {@link DeviceResponseDTO})
+     */
+    public DeviceResponseDTO withOnly(Set<DeviceField> fields) {
+        return new DeviceResponseDTO(
+                fields.contains(DeviceField.ID) ? id : null,
+                fields.contains(DeviceField.NAME) ? name : null,
+                fields.contains(DeviceField.BRAND) ? brand : null,
+                fields.contains(DeviceField.CREATED_AT) ? createdAt : null,
+                version);
     }
 }
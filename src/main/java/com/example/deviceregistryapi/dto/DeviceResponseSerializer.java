@@ -0,0 +1,114 @@
+package com.example.deviceregistryapi.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link DeviceResponseDTO} straight to the generator, with the same output as Jackson's default serializer.
+ * <p>
+ * Listings write thousands of devices per response, and the default serializer formats every {@code createdAt} with
+ * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}, which builds a new string through a chain of printer objects. This one
+ * writes the digits into a character buffer that is shared by all devices of one response, and writes the field names
+ * from pre-encoded strings.
+ */
+@JsonComponent
+public class DeviceResponseSerializer extends StdSerializer<DeviceResponseDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString BRAND = new SerializedString("brand");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+
+    private static final int MAX_DATE_TIME_LENGTH = "9999-12-31T23:59:59.999999999".length();
+    private static final Object BUFFER = new Object();
+
+    public DeviceResponseSerializer() {
+        super(DeviceResponseDTO.class);
+    }
+
+    @Override
+    public void serialize(DeviceResponseDTO device, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(device);
+        if (device.id() != null) {
+            generator.writeFieldName(ID);
+            generator.writeNumber(device.id());
+        }
+        if (device.name() != null) {
+            generator.writeFieldName(NAME);
+            generator.writeString(device.name());
+        }
+        if (device.brand() != null) {
+            generator.writeFieldName(BRAND);
+            generator.writeString(device.brand());
+        }
+        if (device.createdAt() != null) {
+            generator.writeFieldName(CREATED_AT);
+            writeDateTime(device.createdAt(), generator, provider);
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeDateTime(LocalDateTime value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            // Signed and five-digit years are rare enough to leave to the formatter.
+            generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            return;
+        }
+        // The attribute lives as long as one call to the ObjectMapper, e.g. one page of devices.
+        char[] buffer = (char[]) provider.getAttribute(BUFFER);
+        if (buffer == null) {
+            buffer = new char[MAX_DATE_TIME_LENGTH];
+            provider.setAttribute(BUFFER, buffer);
+        }
+        generator.writeString(buffer, 0, format(value, buffer));
+    }
+
+    /**
+     * Formats like {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} for years 0 to 9999: seconds are always written and
+     * the fraction only when it is not zero, without trailing zeros.
+     *
+     * @param value  the time to format (type: {@link LocalDateTime})
+     * @param buffer the buffer to write to, of at least {@value #MAX_DATE_TIME_LENGTH} characters (type: {@code char[]})
+     * @return the number of characters written (type: {@code int})
+     */
+    static int format(LocalDateTime value, char[] buffer) {
+        writeDigits(buffer, 0, value.getYear(), 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, value.getSecond(), 2);
+        int nano = value.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        buffer[19] = '.';
+        writeDigits(buffer, 20, nano, 9);
+        int length = 29;
+        while (buffer[length - 1] == '0') {
+            length--;
+        }
+        return length;
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.deviceregistryapi.dto;
+
+import com.example.deviceregistryapi.job.JobStatus;
+import com.example.deviceregistryapi.job.JobType;
+
+import java.time.LocalDateTime;
+
+/**
+ * The state of a background job.
+ * {@code total} is {@code null} while the number of items is unknown. Once an import or bulk operation has
+ * succeeded, {@code result} holds its summary; the file of a succeeded export is downloaded separately.
+ */
+public record JobDTO(String id,
+                     JobType type,
+                     JobStatus status,
+                     long processed,
+                     Long total,
+                     LocalDateTime submittedAt,
+                     LocalDateTime startedAt,
+                     LocalDateTime finishedAt,
+                     Object result,
+                     String error) {
+}
@@ -0,0 +1,34 @@
+package com.example.deviceregistryapi.event;
+
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+
+/**
+ * Published by the services whenever a device is created, updated or deleted.
+ * Listeners should use {@code @TransactionalEventListener}, so they only see committed changes.
+ *
+ * @param type   what happened to the device
+ * @param id     the ID of the device
+ * @param device the device after the change, or {@code null} for deletions
+ */
+public record DeviceEvent(Type type,
+                          Long id,
+                          DeviceResponseDTO device) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static DeviceEvent created(DeviceResponseDTO device) {
+        return new DeviceEvent(Type.CREATED, device.id(), device);
+    }
+
+    public static DeviceEvent updated(DeviceResponseDTO device) {
+        return new DeviceEvent(Type.UPDATED, device.id(), device);
+    }
+
+    public static DeviceEvent deleted(Long id) {
+        return new DeviceEvent(Type.DELETED, id, null);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.deviceregistryapi.event;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes committed {@link DeviceEvent}s to Server-Sent Events subscribers.
+ * <p>
+ * Every event is serialized once and numbered. Publishing only appends it to a bounded buffer per subscriber; a small
+ * shared pool of dispatch threads writes the buffers to the streams, so neither the publishing request nor an idle
+ * subscriber holds a thread. When a subscriber falls behind, the {@link OverflowPolicy} decides whether old events are
+ * dropped or the stream is closed. The most recent events are kept for replay to clients reconnecting with
+ * {@code Last-Event-ID}; a client that missed more than that receives a {@code reset} event and should resync through
+ * the change feed. With virtual threads enabled, each drain runs on its own virtual thread instead of the pool.
+ */
+@Component
+@Slf4j
+public class DeviceEventBroadcaster implements DisposableBean {
+
+    private final ObjectMapper objectMapper;
+    private final DeviceRegistryProperties.Events config;
+    private final ExecutorService dispatcher;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Deque<SequencedEvent> replayBuffer = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private long lastSequence;
+
+    public DeviceEventBroadcaster(ObjectMapper objectMapper, DeviceRegistryProperties properties,
+                                  @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.objectMapper = objectMapper;
+        this.config = properties.events();
+        this.dispatcher = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("device-events-", 0).factory())
+                : Executors.newFixedThreadPool(config.dispatchThreads(), new CustomizableThreadFactory("device-events-"));
+    }
+
+    /**
+     * Opens a new event stream.
+     *
+     * @param lastEventId the ID of the last event the client received, or {@code null} for a new client (type: {@link Long})
+     * @return the event stream (type: {@link SseEmitter})
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(config.timeout().toMillis());
+        register(emitter, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Sends an event to all subscribers once the transaction that published it has committed.
+     *
+     * @param event the device event (type: {@link DeviceEvent})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceEvent(DeviceEvent event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        lock.lock();
+        try {
+            SequencedEvent sequenced = new SequencedEvent(++lastSequence, event.type().name().toLowerCase(Locale.ROOT), payload);
+            replayBuffer.addLast(sequenced);
+            if (replayBuffer.size() > config.replayBufferSize()) {
+                replayBuffer.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.enqueue(sequenced));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of open event streams
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * @return the number of events dropped because subscribers fell behind
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    void register(SseEmitter emitter, Long lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int bufferedEventCount(SseEmitter emitter) {
+        return subscribers.stream()
+                .filter(subscriber -> subscriber.emitter == emitter)
+                .mapToInt(subscriber -> subscriber.size.get())
+                .sum();
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        SequencedEvent oldest = replayBuffer.peekFirst();
+        boolean missedEvents = oldest == null ? lastEventId != lastSequence : lastEventId < oldest.sequence() - 1;
+        if (missedEvents || lastEventId > lastSequence) {
+            subscriber.enqueue(new SequencedEvent(lastSequence, "reset", "{}"));
+            return;
+        }
+        replayBuffer.stream()
+                .filter(event -> event.sequence() > lastEventId)
+                .forEach(subscriber::enqueue);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdown();
+        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private record SequencedEvent(long sequence, String name, String payload) {
+    }
+
+    /**
+     * An open stream with its own bounded buffer. At most one dispatch task drains a subscriber at a time.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<SequencedEvent> buffer = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(SequencedEvent event) {
+            if (closed) {
+                return;
+            }
+            if (size.get() >= config.subscriberBufferSize()) {
+                droppedEvents.incrementAndGet();
+                if (config.overflowPolicy() == OverflowPolicy.DISCONNECT) {
+                    close();
+                    return;
+                }
+                if (buffer.poll() != null) {
+                    size.decrementAndGet();
+                }
+            }
+            buffer.offer(event);
+            size.incrementAndGet();
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SequencedEvent event;
+                while (!closed && (event = buffer.poll()) != null) {
+                    size.decrementAndGet();
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.sequence()))
+                            .name(event.name())
+                            .data(event.payload()));
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Closing device event stream: {}", ex.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been enqueued after the last poll but before the flag was cleared.
+            if (!closed && !buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            size.set(0);
+            emitter.complete();
+        }
+    }
+}
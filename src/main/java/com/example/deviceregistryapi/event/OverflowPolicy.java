@@ -0,0 +1,17 @@
+package com.example.deviceregistryapi.event;
+
+/**
+ * What happens when a subscriber of the device event stream falls behind and its buffer is full.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Drop the oldest buffered event and keep the subscriber connected.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Close the stream, so that the client reconnects with {@code Last-Event-ID} and catches up from the replay buffer.
+     */
+    DISCONNECT
+}
@@ -1,21 +1,51 @@
 package com.example.deviceregistryapi.exception;
 
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Maps exceptions to error responses. Every handled exception is counted in {@code device.api.errors}, tagged with the
+ * exception type and the response status.
+ * <p>
+ * Client errors and rejected jobs are expected and may come in storms, for example from clients enumerating IDs, so
+ * they are not logged one by one: each exception type is logged at most once per
+ * {@code device-registry.diagnostics.error-log-interval}, together with the number left out since, and every one only
+ * at DEBUG level. Unexpected exceptions are always logged.
+ */
 @ControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final LogSampler logSampler;
+    private final Map<ErrorKey, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    private record ErrorKey(Class<?> exception, HttpStatus status) {
+    }
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry, DeviceRegistryProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.logSampler = new LogSampler(properties.diagnostics().errorLogInterval());
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiError> handleResourceNotFound(ResourceNotFoundException ex) {
-        log.error("ResourceNotFoundException: {}", ex.getMessage());
+        logExpectedError(ex);
+        countError(ex, HttpStatus.NOT_FOUND);
         ApiError error = new ApiError(
                 LocalDateTime.now(),
                 HttpStatus.NOT_FOUND.value(),
@@ -25,9 +55,36 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailed(PreconditionFailedException ex) {
+        logExpectedError(ex);
+        countError(ex, HttpStatus.PRECONDITION_FAILED);
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.PRECONDITION_FAILED.value(),
+                HttpStatus.PRECONDITION_FAILED.getReasonPhrase(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<ApiError> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        logExpectedError(ex);
+        countError(ex, HttpStatus.PAYLOAD_TOO_LARGE);
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                HttpStatus.PAYLOAD_TOO_LARGE.getReasonPhrase(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(error);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiError> handleIllegalArgument(IllegalArgumentException ex) {
-        log.error("IllegalArgumentException: {}", ex.getMessage());
+        logExpectedError(ex);
+        countError(ex, HttpStatus.BAD_REQUEST);
         ApiError error = new ApiError(
                 LocalDateTime.now(),
                 HttpStatus.BAD_REQUEST.value(),
@@ -39,7 +96,8 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleValidationException(MethodArgumentNotValidException ex) {
-        log.error("MethodArgumentNotValidException: {}", ex.getMessage());
+        logExpectedError(ex);
+        countError(ex, HttpStatus.BAD_REQUEST);
         ApiError error = new ApiError(
                 LocalDateTime.now(),
                 HttpStatus.BAD_REQUEST.value(),
@@ -49,9 +107,67 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(error);
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        logExpectedError(ex);
+        countError(ex, HttpStatus.BAD_REQUEST);
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                String.format("Invalid value for parameter '%s'", ex.getName())
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(JobQueueFullException.class)
+    public ResponseEntity<ApiError> handleJobQueueFull(JobQueueFullException ex) {
+        logExpectedError(ex);
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiError> handleTooManyRequests(TooManyRequestsException ex) {
+        // Rejections are counted but not logged: a client over its budget would otherwise flood the log.
+        countError(ex, HttpStatus.TOO_MANY_REQUESTS);
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloaded(ServiceOverloadedException ex) {
+        countError(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        ApiError error = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(ex.getRetryAfter()))
+                .body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGlobalException(Exception ex) {
         log.error("Unexpected Exception: {}", ex.getMessage(), ex);
+        countError(ex, HttpStatus.INTERNAL_SERVER_ERROR);
         ApiError error = new ApiError(
                 LocalDateTime.now(),
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
@@ -61,4 +177,32 @@ public class GlobalExceptionHandler {
         return ResponseEntity.internalServerError().body(error);
     }
 
+    private void countError(Exception ex, HttpStatus status) {
+        // Looking the counter up in the registry would build its ID and tags on every error.
+        errorCounters.computeIfAbsent(new ErrorKey(ex.getClass(), status), key -> meterRegistry.counter(
+                "device.api.errors",
+                "exception", key.exception().getSimpleName(),
+                "status", Integer.toString(key.status().value()))).increment();
+    }
+
+    private void logExpectedError(Exception ex) {
+        long skipped = logSampler.sample(ex.getClass());
+        if (skipped < 0) {
+            log.debug("{}: {}", ex.getClass().getSimpleName(), ex.getMessage());
+        } else if (skipped == 0) {
+            log.warn("{}: {}", ex.getClass().getSimpleName(), ex.getMessage());
+        } else {
+            log.warn("{}: {} ({} more since the last one logged)", ex.getClass().getSimpleName(), ex.getMessage(), skipped);
+        }
+    }
+
+    /**
+     * @param retryAfter how long the client should wait (type: {@link Duration})
+     * @return the {@code Retry-After} header value in whole seconds, rounded up and at least one (type: {@link String})
+     */
+    private static String retryAfterSeconds(Duration retryAfter) {
+        long seconds = retryAfter.getSeconds() + (retryAfter.getNano() > 0 ? 1 : 0);
+        return Long.toString(Math.max(1, seconds));
+    }
+
 }
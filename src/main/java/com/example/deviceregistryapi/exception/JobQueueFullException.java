@@ -0,0 +1,20 @@
+package com.example.deviceregistryapi.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a job is submitted while the job queue is full.
+ * Like {@link ServiceOverloadedException} it is an expected outcome and has no stack trace.
+ */
+@Getter
+public class JobQueueFullException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public JobQueueFullException(Duration retryAfter) {
+        super("The job queue is full, try again later", null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
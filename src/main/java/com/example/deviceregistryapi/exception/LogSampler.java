@@ -0,0 +1,55 @@
+package com.example.deviceregistryapi.exception;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Picks which of many similar log statements are written: at most one per interval for each key. The statements left
+ * out in between are counted, so that the next written one can tell how many there were.
+ * <p>
+ * Deciding takes no lock: each key holds the earliest time of its next statement, claimed with compare-and-set.
+ */
+class LogSampler {
+
+    private final long intervalNanos;
+    private final ConcurrentMap<Object, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * @param interval the minimum time between two written statements of the same key (type: {@link Duration})
+     */
+    LogSampler(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * @param key what the statement is about, e.g. an exception type (type: {@link Object})
+     * @return the number of statements left out since the last written one, or {@code -1} if this one is to be left
+     * out as well (type: {@code long})
+     */
+    long sample(Object key) {
+        return sample(key, System.nanoTime());
+    }
+
+    long sample(Object key, long now) {
+        Window window = windows.computeIfAbsent(key, k -> new Window(now));
+        long next = window.next.get();
+        if (now - next < 0 || !window.next.compareAndSet(next, now + intervalNanos)) {
+            window.skipped.increment();
+            return -1;
+        }
+        return window.skipped.sumThenReset();
+    }
+
+    private static final class Window {
+
+        private final AtomicLong next;
+        private final LongAdder skipped = new LongAdder();
+
+        private Window(long now) {
+            this.next = new AtomicLong(now);
+        }
+    }
+}
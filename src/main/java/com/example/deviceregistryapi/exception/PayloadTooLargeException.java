@@ -0,0 +1,11 @@
+package com.example.deviceregistryapi.exception;
+
+/**
+ * This exception is thrown when a request body is larger than accepted.
+ * Like {@link ResourceNotFoundException} it is an expected outcome and has no stack trace.
+ */
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message, null, false, false);
+    }
+}
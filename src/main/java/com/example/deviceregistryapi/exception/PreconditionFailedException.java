@@ -0,0 +1,11 @@
+package com.example.deviceregistryapi.exception;
+
+/**
+ * This exception is thrown when a conditional write is rejected because the resource has changed.
+ * Like {@link ResourceNotFoundException} it is an expected outcome and has no stack trace.
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message, null, false, false);
+    }
+}
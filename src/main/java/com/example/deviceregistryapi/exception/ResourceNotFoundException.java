@@ -2,9 +2,20 @@ package com.example.deviceregistryapi.exception;
 
 /**
  * This exception is thrown when a requested resource is not found.
+ * <p>
+ * Unknown IDs are an expected outcome that clients cause at any rate (for example by enumerating IDs), so the
+ * exception has no stack trace: filling it in would cost more than the rest of the request.
  */
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+    }
+
+    /**
+     * @param resource the kind of resource, e.g. {@code Device} (type: {@link String})
+     * @param id       the ID that was not found (type: {@link Object})
+     */
+    public ResourceNotFoundException(String resource, Object id) {
+        this(resource + " with id " + id + " not found");
     }
 }
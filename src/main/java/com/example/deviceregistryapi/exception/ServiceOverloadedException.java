@@ -0,0 +1,20 @@
+package com.example.deviceregistryapi.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a request is rejected early because the service is overloaded.
+ * It is thrown for every rejected request, so it has no stack trace.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
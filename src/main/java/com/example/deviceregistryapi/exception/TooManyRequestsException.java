@@ -0,0 +1,20 @@
+package com.example.deviceregistryapi.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * This exception is thrown when a client has used up its request budget.
+ * It is thrown for every rejected request, so it has no stack trace.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message, null, false, false);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,497 @@
+package com.example.deviceregistryapi.index;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEvent;
+import com.example.deviceregistryapi.model.Device;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * An optional in-memory copy of the whole registry, enabled with {@code device-registry.index.enabled}, which serves
+ * lookups by ID and brand searches without touching JPA.
+ * <p>
+ * Devices are stored column-wise in primitive arrays indexed by a slot: the ID, an interned brand number, the creation
+ * time in epoch nanoseconds and the version, with all names UTF-8 encoded in one shared byte array. A primitive hash
+ * map leads from the ID to the slot, and each brand has a sorted array of its IDs. Beyond the arrays themselves the
+ * index allocates nothing per device, so even tens of millions of devices add no objects for the garbage collector
+ * to trace; DTOs are only created for the devices a request returns.
+ * <p>
+ * The index is filled from {@link DeviceRepository} in chunks after startup and kept current from committed
+ * {@link DeviceEvent}s, which every write publishes. Until it is filled, {@link #isReady()} is {@code false} and reads
+ * go to the database. Events that arrive while it is being filled win over the rows read for it: older versions of a
+ * device and devices deleted in the meantime are skipped.
+ */
+@Component
+@Slf4j
+public class DeviceIndex implements MeterBinder {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final int MIN_COMPACTION_BYTES = 1 << 20;
+    // The largest array most JVMs can allocate.
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private final DeviceRepository deviceRepository;
+    private final DeviceRegistryProperties.Index config;
+    private final StampedLock lock = new StampedLock();
+    private final Set<Long> deletedWhileWarming = ConcurrentHashMap.newKeySet();
+    private volatile boolean warming;
+    private volatile boolean ready;
+    private volatile boolean abandoned;
+
+    // Columns, indexed by slot.
+    private long[] ids;
+    private int[] brands;
+    private long[] createdAt;
+    private long[] versions;
+    private int[] nameOffsets;
+    private int[] nameLengths;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeSlotCount;
+
+    // All names, appended; bytes of overwritten names are reclaimed by compacting.
+    private byte[] names;
+    private int namesEnd;
+    private long unusedNameBytes;
+    private final int maxNameBytes;
+
+    private final LongIntHashMap slotsById;
+
+    // Interned brands, indexed by brand number.
+    private final List<String> brandNames = new ArrayList<>();
+    private final List<String> brandNamesNormalized = new ArrayList<>();
+    private final List<PostingList> postings = new ArrayList<>();
+    private final Map<String, Integer> brandNumbers = new HashMap<>();
+
+    public DeviceIndex(DeviceRepository deviceRepository, DeviceRegistryProperties properties) {
+        this.deviceRepository = deviceRepository;
+        this.config = properties.index();
+        int capacity = config.enabled() ? config.initialCapacity() : 16;
+        this.ids = new long[capacity];
+        this.brands = new int[capacity];
+        this.createdAt = new long[capacity];
+        this.versions = new long[capacity];
+        this.nameOffsets = new int[capacity];
+        this.nameLengths = new int[capacity];
+        this.maxNameBytes = (int) Math.min(config.maxNamesSize().toBytes(), MAX_ARRAY_LENGTH);
+        this.names = new byte[(int) Math.min(capacity * 16L, maxNameBytes)];
+        this.slotsById = new LongIntHashMap(capacity);
+    }
+
+    /**
+     * Selects brands by their name and normalized name.
+     */
+    @FunctionalInterface
+    public interface BrandSelector {
+        boolean matches(String brand, String brandNormalized);
+    }
+
+    /**
+     * @return whether the index holds the whole registry and may serve reads
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Tells whether a page can be served in the order of the index, which is by ID.
+     *
+     * @param pageable the requested page (type: {@link Pageable})
+     * @return whether the page is unsorted or sorted by ID ascending
+     */
+    public static boolean supports(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        return sort.isUnsorted() || sort.equals(Sort.by("id"));
+    }
+
+    /**
+     * @param id the ID of the device (type: {@link Long})
+     * @return the device, or {@code null} if it does not exist (type: {@link DeviceResponseDTO})
+     */
+    public DeviceResponseDTO get(long id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotsById.get(id);
+            return slot < 0 ? null : toDTO(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Finds a page of the devices of the selected brands, ordered by ID.
+     *
+     * @param selector selects the brands (type: {@link BrandSelector})
+     * @param pageable the page; must be {@link #supports(Pageable) supported} (type: {@link Pageable})
+     * @return the page of devices (type: {@link Page}<{@link DeviceResponseDTO}>)
+     */
+    public Page<DeviceResponseDTO> findByBrand(BrandSelector selector, Pageable pageable) {
+        long stamp = lock.readLock();
+        try {
+            List<PostingList> lists = select(selector);
+            long total = lists.stream().mapToLong(PostingList::size).sum();
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(collect(lists, 0, Long.MIN_VALUE, Integer.MAX_VALUE), pageable, total);
+            }
+            return new PageImpl<>(collect(lists, pageable.getOffset(), Long.MIN_VALUE, pageable.getPageSize()), pageable, total);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Finds the devices of the selected brands after an ID, ordered by ID.
+     *
+     * @param selector selects the brands (type: {@link BrandSelector})
+     * @param afterId  only devices with a greater ID are returned (type: {@code long})
+     * @param limit    the maximum number of devices (type: {@code int})
+     * @return the devices (type: {@link List}<{@link DeviceResponseDTO}>)
+     */
+    public List<DeviceResponseDTO> findByBrand(BrandSelector selector, long afterId, int limit) {
+        long stamp = lock.readLock();
+        try {
+            return collect(select(selector), 0, afterId, limit);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Applies a committed change.
+     *
+     * @param event the change (type: {@link DeviceEvent})
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceEvent(DeviceEvent event) {
+        if (!config.enabled() || abandoned) {
+            return;
+        }
+        if (event.type() == DeviceEvent.Type.DELETED) {
+            if (warming) {
+                deletedWhileWarming.add(event.id());
+            }
+            remove(event.id());
+        } else {
+            put(event.device());
+        }
+    }
+
+    /**
+     * Fills the index on a background thread once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmUp() {
+        if (config.enabled()) {
+            Thread.ofPlatform().name("device-index-warm-up").daemon().start(this::warmUp);
+        }
+    }
+
+    /**
+     * Reads the whole registry in chunks ordered by ID and marks the index ready.
+     */
+    void warmUp() {
+        warming = true;
+        long started = System.nanoTime();
+        try {
+            long afterId = 0;
+            List<DeviceResponseDTO> chunk;
+            do {
+                if (abandoned) {
+                    return;
+                }
+                chunk = deviceRepository.findResponsesAfter(afterId, Limit.of(config.warmUpChunkSize()));
+                for (DeviceResponseDTO device : chunk) {
+                    if (!deletedWhileWarming.contains(device.id())) {
+                        put(device);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1).id();
+                }
+            } while (chunk.size() == config.warmUpChunkSize());
+            if (abandoned) {
+                return;
+            }
+            ready = true;
+            log.info("Device index ready with {} devices after {} ms", size(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.error("Device index warm-up failed; reads stay on the database", ex);
+        } finally {
+            warming = false;
+            deletedWhileWarming.clear();
+        }
+    }
+
+    /**
+     * Stores a device, unless a newer version of it is stored already.
+     *
+     * @param device the device (type: {@link DeviceResponseDTO})
+     */
+    void put(DeviceResponseDTO device) {
+        long version = device.version() == null ? 0 : device.version();
+        byte[] name = device.name().getBytes(StandardCharsets.UTF_8);
+        long stamp = lock.writeLock();
+        try {
+            if (abandoned) {
+                return;
+            }
+            int brand = intern(device.brand());
+            int slot = slotsById.get(device.id());
+            if (slot < 0) {
+                slot = allocateSlot();
+                slotsById.put(device.id(), slot);
+                ids[slot] = device.id();
+                postings.get(brand).add(device.id());
+            } else {
+                if (versions[slot] > version) {
+                    return;
+                }
+                if (brands[slot] != brand) {
+                    postings.get(brands[slot]).remove(device.id());
+                    postings.get(brand).add(device.id());
+                }
+                unusedNameBytes += nameLengths[slot];
+                nameLengths[slot] = 0;
+            }
+            brands[slot] = brand;
+            createdAt[slot] = toEpochNanos(device.createdAt());
+            versions[slot] = version;
+            if (!storeName(slot, name)) {
+                abandon();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param id the ID of the deleted device (type: {@code long})
+     */
+    void remove(long id) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotsById.remove(id);
+            if (slot < 0) {
+                return;
+            }
+            postings.get(brands[slot]).remove(id);
+            unusedNameBytes += nameLengths[slot];
+            // Compacting goes by slot, so a reused slot must not bring back the old name.
+            nameLengths[slot] = 0;
+            if (freeSlotCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+            }
+            freeSlots[freeSlotCount++] = slot;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the number of devices in the index
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the heap used by the index, in bytes
+     */
+    public long bytes() {
+        long stamp = lock.readLock();
+        try {
+            long columns = ids.length * (long) (Long.BYTES * 3 + Integer.BYTES * 3);
+            long lists = postings.stream().mapToLong(PostingList::bytes).sum();
+            return columns + names.length + slotsById.tableBytes() + lists;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("device.index.size", this, DeviceIndex::size)
+                .description("Devices held by the in-memory index")
+                .register(registry);
+        Gauge.builder("device.index.bytes", this, DeviceIndex::bytes)
+                .description("Heap used by the in-memory index")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("device.index.ready", this, index -> index.isReady() ? 1 : 0)
+                .description("Whether reads are served by the in-memory index")
+                .register(registry);
+    }
+
+    private List<PostingList> select(BrandSelector selector) {
+        List<PostingList> lists = new ArrayList<>();
+        for (int brand = 0; brand < brandNames.size(); brand++) {
+            if (postings.get(brand).size() > 0 && selector.matches(brandNames.get(brand), brandNamesNormalized.get(brand))) {
+                lists.add(postings.get(brand));
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * Merges the posting lists in ID order, skipping the first {@code offset} IDs after {@code afterId}.
+     */
+    private List<DeviceResponseDTO> collect(List<PostingList> lists, long offset, long afterId, int limit) {
+        int[] positions = new int[lists.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = lists.get(i).indexAfter(afterId);
+        }
+        List<DeviceResponseDTO> devices = new ArrayList<>(Math.min(limit, 1024));
+        long skipped = 0;
+        while (devices.size() < limit) {
+            int next = -1;
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] < lists.get(i).end()
+                        && (next < 0 || lists.get(i).get(positions[i]) < lists.get(next).get(positions[next]))) {
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            long id = lists.get(next).get(positions[next]);
+            positions[next] = lists.get(next).nextLive(positions[next] + 1);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                devices.add(toDTO(slotsById.get(id)));
+            }
+        }
+        return devices;
+    }
+
+    private DeviceResponseDTO toDTO(int slot) {
+        return new DeviceResponseDTO(
+                ids[slot],
+                new String(names, nameOffsets[slot], nameLengths[slot], StandardCharsets.UTF_8),
+                brandNames.get(brands[slot]),
+                fromEpochNanos(createdAt[slot]),
+                versions[slot]);
+    }
+
+    private int intern(String brand) {
+        Integer number = brandNumbers.get(brand);
+        if (number == null) {
+            number = brandNames.size();
+            brandNames.add(brand);
+            brandNamesNormalized.add(Device.normalizeBrand(brand));
+            postings.add(new PostingList());
+            brandNumbers.put(brand, number);
+        }
+        return number;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0) {
+            return freeSlots[--freeSlotCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            brands = Arrays.copyOf(brands, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Appends a name, growing the names array up to {@link #maxNameBytes}.
+     *
+     * @return whether the name fit
+     */
+    private boolean storeName(int slot, byte[] name) {
+        if (unusedNameBytes > MIN_COMPACTION_BYTES && unusedNameBytes > namesEnd / 2
+                || unusedNameBytes > 0 && (long) namesEnd + name.length > maxNameBytes) {
+            compactNames();
+        }
+        long end = (long) namesEnd + name.length;
+        if (end > maxNameBytes) {
+            return false;
+        }
+        if (end > names.length) {
+            names = Arrays.copyOf(names, (int) Math.min(Math.max(names.length * 2L, end), maxNameBytes));
+        }
+        System.arraycopy(name, 0, names, namesEnd, name.length);
+        nameOffsets[slot] = namesEnd;
+        nameLengths[slot] = name.length;
+        namesEnd = (int) end;
+        return true;
+    }
+
+    /**
+     * Copies the names of the stored devices into a new array, dropping the bytes of overwritten and deleted names.
+     */
+    private void compactNames() {
+        long liveBytes = namesEnd - unusedNameBytes;
+        byte[] compacted = new byte[(int) Math.min(Math.max(16, liveBytes * 2), maxNameBytes)];
+        int end = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (slotsById.get(ids[slot]) != slot) {
+                continue;
+            }
+            System.arraycopy(names, nameOffsets[slot], compacted, end, nameLengths[slot]);
+            nameOffsets[slot] = end;
+            end += nameLengths[slot];
+        }
+        names = compacted;
+        namesEnd = end;
+        unusedNameBytes = 0;
+    }
+
+    /**
+     * Stops serving and updating the index for good once the names no longer fit. Reads that already passed
+     * {@link #isReady()} still see the devices stored so far, so the arrays are kept until the next restart.
+     */
+    private void abandon() {
+        abandoned = true;
+        ready = false;
+        log.error("Device names need more than {} bytes (device-registry.index.max-names-size); "
+                + "the device index is abandoned and reads stay on the database", maxNameBytes);
+    }
+
+    private static long toEpochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * NANOS_PER_SECOND + time.getNano();
+    }
+
+    private static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+                (int) Math.floorMod(epochNanos, NANOS_PER_SECOND), ZoneOffset.UTC);
+    }
+}
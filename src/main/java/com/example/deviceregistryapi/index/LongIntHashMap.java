@@ -0,0 +1,140 @@
+package com.example.deviceregistryapi.index;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from positive {@code long} keys to {@code int} values, stored in two primitive arrays
+ * with linear probing. Unlike a {@code HashMap<Long, Integer>} it allocates no object per entry. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    /**
+     * @param key a key; keys that are not positive are never present
+     * @return the value, or {@code -1} if the key is absent
+     */
+    int get(long key) {
+        if (key <= 0) {
+            // 0 marks empty slots, so probing for it would find one.
+            return -1;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long current = keys[i];
+            if (current == key) {
+                return values[i];
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @param key   a positive key
+     * @param value the value
+     */
+    void put(long key, int value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Keys must be positive: " + key);
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            rehash(keys.length * 2);
+        }
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * @param key a key; keys that are not positive are never present
+     * @return the removed value, or {@code -1} if the key was absent
+     */
+    int remove(long key) {
+        if (key <= 0) {
+            return -1;
+        }
+        int hole = slot(key);
+        while (keys[hole] != key) {
+            if (keys[hole] == EMPTY) {
+                return -1;
+            }
+            hole = (hole + 1) & mask;
+        }
+        int value = values[hole];
+        // Shift later entries of the probe sequence back into the hole, so that lookups need no tombstones.
+        for (int i = (hole + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = -1;
+        size--;
+        return value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the heap used by the table, in bytes
+     */
+    long tableBytes() {
+        return keys.length * (long) (Long.BYTES + Integer.BYTES);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, -1);
+        mask = capacity - 1;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
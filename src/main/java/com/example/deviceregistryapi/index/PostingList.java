@@ -0,0 +1,118 @@
+package com.example.deviceregistryapi.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The IDs of the devices of one brand, kept sorted in a primitive array. New devices get increasing IDs, so adding
+ * usually appends. Not thread-safe.
+ * <p>
+ * Removing an ID only marks its position; the array is compacted in one pass once more than half of it is marked.
+ * Deleting a whole brand one device at a time therefore costs linear time in total instead of shifting the rest of the
+ * array for every ID, which would hold the index lock for quadratic time. Positions, as used by {@link #get(int)},
+ * include marked ones and run up to {@link #end()}; {@link #indexAfter(long)} and {@link #nextLive(int)} skip them.
+ */
+final class PostingList {
+
+    private long[] ids = new long[8];
+    private BitSet removed = new BitSet();
+    // Positions in use, including removed ones.
+    private int end;
+    private int size;
+
+    void add(long id) {
+        int index = end == 0 || ids[end - 1] < id ? -(end + 1) : Arrays.binarySearch(ids, 0, end, id);
+        if (index >= 0) {
+            if (removed.get(index)) {
+                removed.clear(index);
+                size++;
+            }
+            return;
+        }
+        int insertAt = -(index + 1);
+        if (insertAt < end && size < end) {
+            // Shifting the IDs would have to shift the marks as well; drop the removed IDs instead.
+            compact();
+            insertAt = -(Arrays.binarySearch(ids, 0, end, id) + 1);
+        }
+        if (end == ids.length) {
+            ids = Arrays.copyOf(ids, end * 2);
+        }
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, end - insertAt);
+        ids[insertAt] = id;
+        end++;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(ids, 0, end, id);
+        if (index < 0 || removed.get(index)) {
+            return;
+        }
+        removed.set(index);
+        size--;
+        if (end - size > end / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * @return the number of IDs in the list
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the position after the last one in use
+     */
+    int end() {
+        return end;
+    }
+
+    /**
+     * @param index a position below {@link #end()}, which must not be removed
+     * @return the ID at the position
+     */
+    long get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param index a position
+     * @return the first position at or after the given one that holds an ID, or at least {@link #end()} if there is none
+     */
+    int nextLive(int index) {
+        return removed.nextClearBit(index);
+    }
+
+    /**
+     * @param id an ID
+     * @return the position of the first ID greater than the given one, or at least {@link #end()} if there is none
+     */
+    int indexAfter(long id) {
+        int index = Arrays.binarySearch(ids, 0, end, id);
+        return nextLive(index >= 0 ? index + 1 : -(index + 1));
+    }
+
+    /**
+     * @return the heap used by the list, in bytes
+     */
+    long bytes() {
+        return ids.length * (long) Long.BYTES + removed.size() / Byte.SIZE;
+    }
+
+    private void compact() {
+        int to = 0;
+        for (int from = removed.nextClearBit(0); from < end; from = removed.nextClearBit(from + 1)) {
+            ids[to++] = ids[from];
+        }
+        end = to;
+        if (ids.length > 8 && end < ids.length / 4) {
+            ids = Arrays.copyOf(ids, Math.max(8, end * 2));
+            removed = new BitSet();
+        } else {
+            removed.clear();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.deviceregistryapi.job;
+
+import com.example.deviceregistryapi.service.ExportFormat;
+
+import java.nio.file.Path;
+
+/**
+ * The file written by a finished export job.
+ *
+ * @param path   the location of the file
+ * @param format the format of the file
+ */
+public record ExportFile(Path path, ExportFormat format) {
+}
@@ -0,0 +1,151 @@
+package com.example.deviceregistryapi.job;
+
+import com.example.deviceregistryapi.dto.JobDTO;
+import com.example.deviceregistryapi.service.ExportFormat;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A submitted background job and its progress. State changes are atomic, so a job that is cancelled while it
+ * starts either never runs or stops at its next checkpoint.
+ */
+final class Job implements JobProgress {
+
+    private final String id;
+    private final JobType type;
+    private final JobThrottle throttle;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicReference<JobStatus> status = new AtomicReference<>(JobStatus.QUEUED);
+    private final AtomicLong processed = new AtomicLong();
+    private volatile Long total;
+    private volatile boolean cancelRequested;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile Object result;
+    private volatile String error;
+    private volatile Future<?> future;
+    private volatile Path file;
+    private volatile ExportFormat format;
+
+    Job(String id, JobType type, JobThrottle throttle) {
+        this.id = id;
+        this.type = type;
+        this.throttle = throttle;
+    }
+
+    String id() {
+        return id;
+    }
+
+    JobType type() {
+        return type;
+    }
+
+    JobStatus status() {
+        return status.get();
+    }
+
+    LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return the file the job reads from or writes to, or {@code null}
+     */
+    Path file() {
+        return file;
+    }
+
+    /**
+     * @return the format of the file an export job writes, or {@code null}
+     */
+    ExportFormat format() {
+        return format;
+    }
+
+    void file(Path file, ExportFormat format) {
+        this.file = file;
+        this.format = format;
+    }
+
+    void future(Future<?> future) {
+        this.future = future;
+    }
+
+    @Override
+    public void total(long total) {
+        this.total = total;
+    }
+
+    @Override
+    public void advance(long processed) {
+        this.processed.addAndGet(processed);
+    }
+
+    @Override
+    public void checkCancelled() {
+        if (cancelRequested) {
+            throw new CancellationException("Job " + id + " was cancelled");
+        }
+    }
+
+    @Override
+    public void checkpoint() {
+        checkCancelled();
+        throttle.awaitIdlePool();
+    }
+
+    /**
+     * @return whether the job may run; {@code false} if it was cancelled while queued
+     */
+    boolean start() {
+        if (!status.compareAndSet(JobStatus.QUEUED, JobStatus.RUNNING)) {
+            return false;
+        }
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    void succeed(Object result) {
+        this.result = result;
+        finish(JobStatus.SUCCEEDED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(JobStatus.FAILED);
+    }
+
+    void cancelled() {
+        finish(JobStatus.CANCELLED);
+    }
+
+    /**
+     * Cancels a queued job immediately, or asks a running job to stop at its next checkpoint.
+     */
+    void cancel() {
+        if (status.compareAndSet(JobStatus.QUEUED, JobStatus.CANCELLED)) {
+            finishedAt = LocalDateTime.now();
+            Future<?> queued = future;
+            if (queued != null) {
+                queued.cancel(false);
+            }
+        } else {
+            cancelRequested = true;
+        }
+    }
+
+    JobDTO toDTO() {
+        return new JobDTO(id, type, status.get(), processed.get(), total, submittedAt, startedAt, finishedAt, result, error);
+    }
+
+    private void finish(JobStatus finalStatus) {
+        finishedAt = LocalDateTime.now();
+        status.set(finalStatus);
+    }
+}
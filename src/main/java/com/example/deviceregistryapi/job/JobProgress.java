@@ -0,0 +1,56 @@
+package com.example.deviceregistryapi.job;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets long-running work report its progress and stop or slow down when asked to.
+ * Work calls {@link #checkpoint()} before each unit that uses the database, such as a chunk of devices.
+ */
+public interface JobProgress {
+
+    /**
+     * Progress of work that does not run as a job: nothing is tracked and nothing is throttled.
+     */
+    JobProgress NONE = new JobProgress() {
+        @Override
+        public void total(long total) {
+        }
+
+        @Override
+        public void advance(long processed) {
+        }
+
+        @Override
+        public void checkCancelled() {
+        }
+
+        @Override
+        public void checkpoint() {
+        }
+    };
+
+    /**
+     * @param total the number of items the work will process, once known (type: {@code long})
+     */
+    void total(long total);
+
+    /**
+     * @param processed the number of items processed since the last call (type: {@code long})
+     */
+    void advance(long processed);
+
+    /**
+     * Stops the work if it was cancelled.
+     *
+     * @throws CancellationException if the job was cancelled
+     */
+    void checkCancelled();
+
+    /**
+     * Stops the work if it was cancelled, and waits while interactive requests need the database connections.
+     * Call it only while the work holds no connection.
+     *
+     * @throws CancellationException if the job was cancelled
+     */
+    void checkpoint();
+}
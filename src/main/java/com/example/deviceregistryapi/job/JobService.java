@@ -0,0 +1,277 @@
+package com.example.deviceregistryapi.job;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.BulkUpdateRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceFilterDTO;
+import com.example.deviceregistryapi.dto.JobDTO;
+import com.example.deviceregistryapi.exception.JobQueueFullException;
+import com.example.deviceregistryapi.exception.PayloadTooLargeException;
+import com.example.deviceregistryapi.exception.ResourceNotFoundException;
+import com.example.deviceregistryapi.service.DeviceBatchService;
+import com.example.deviceregistryapi.service.DeviceExportService;
+import com.example.deviceregistryapi.service.ExportFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This service runs long-running registry operations as background jobs.
+ * <p>
+ * Jobs run on a small bounded pool, so that they use at most that many database connections; between chunks they
+ * also give way to interactive requests waiting for a connection (see {@link JobThrottle}). When the queue is full,
+ * new jobs are rejected. Finished jobs and their files are kept for the configured retention.
+ */
+@Service
+@Slf4j
+public class JobService implements DisposableBean {
+
+    // Jobs take a while, so there is no point in retrying within seconds.
+    private static final Duration QUEUE_FULL_RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final DeviceBatchService deviceBatchService;
+    private final DeviceExportService deviceExportService;
+    private final JobThrottle throttle;
+    private final DeviceRegistryProperties.Jobs config;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public JobService(DeviceBatchService deviceBatchService, DeviceExportService deviceExportService,
+                      JobThrottle throttle, DeviceRegistryProperties properties) {
+        this.deviceBatchService = deviceBatchService;
+        this.deviceExportService = deviceExportService;
+        this.throttle = throttle;
+        this.config = properties.jobs();
+        this.executor = new ThreadPoolExecutor(config.concurrency(), config.concurrency(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.queueCapacity()), new CustomizableThreadFactory("device-jobs-"));
+    }
+
+    /**
+     * Submits an import of newline-delimited JSON devices. The body is first copied to a temporary file, so the
+     * request completes as soon as it has been received. Bodies larger than {@code device-registry.jobs.max-import-size}
+     * are rejected, and the copy stops as soon as the limit is passed.
+     *
+     * @param ndjson the request body (type: {@link InputStream})
+     * @return the queued job (type: {@link JobDTO})
+     * @throws IOException                if the body cannot be stored
+     * @throws PayloadTooLargeException   if the body is larger than allowed
+     * @throws JobQueueFullException     if too many jobs are queued
+     */
+    public JobDTO submitImport(InputStream ndjson) throws IOException {
+        Path file = Files.createTempFile("device-import-", ".ndjson");
+        try {
+            copy(ndjson, file, config.maxImportSize().toBytes());
+            return submit(JobType.IMPORT, file, null, job -> {
+                try (InputStream in = Files.newInputStream(file)) {
+                    return deviceBatchService.importDevices(in, job);
+                } finally {
+                    Files.deleteIfExists(file);
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    /**
+     * Submits an export to a file, downloadable once the job has succeeded.
+     *
+     * @param format       the output format (type: {@link ExportFormat})
+     * @param brand        only export devices of this brand, or {@code null} for all brands (type: {@link String})
+     * @param modifiedFrom only export devices modified at or after this time, or {@code null} (type: {@link LocalDateTime})
+     * @param modifiedTo   only export devices modified before this time, or {@code null} (type: {@link LocalDateTime})
+     * @return the queued job (type: {@link JobDTO})
+     * @throws IOException                if the file cannot be created
+     * @throws JobQueueFullException     if too many jobs are queued
+     */
+    public JobDTO submitExport(ExportFormat format, String brand, LocalDateTime modifiedFrom, LocalDateTime modifiedTo)
+            throws IOException {
+        Path file = Files.createTempFile("device-export-", "." + format.getFileExtension());
+        try {
+            return submit(JobType.EXPORT, file, format, job -> {
+                try (OutputStream out = Files.newOutputStream(file)) {
+                    deviceExportService.export(format, brand, modifiedFrom, modifiedTo, out, job);
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+    }
+
+    /**
+     * Submits a bulk update.
+     *
+     * @param request the devices to update and the new values (type: {@link BulkUpdateRequestDTO})
+     * @return the queued job (type: {@link JobDTO})
+     * @throws JobQueueFullException     if too many jobs are queued
+     */
+    public JobDTO submitBulkUpdate(BulkUpdateRequestDTO request) {
+        return submit(JobType.BULK_UPDATE, null, null, job -> deviceBatchService.updateDevices(request, job));
+    }
+
+    /**
+     * Submits a bulk delete.
+     *
+     * @param filter the devices to delete (type: {@link DeviceFilterDTO})
+     * @return the queued job (type: {@link JobDTO})
+     * @throws JobQueueFullException     if too many jobs are queued
+     */
+    public JobDTO submitBulkDelete(DeviceFilterDTO filter) {
+        return submit(JobType.BULK_DELETE, null, null, job -> deviceBatchService.deleteDevices(filter, job));
+    }
+
+    /**
+     * Gets the state of a job.
+     *
+     * @param id the ID of the job (type: {@link String})
+     * @return the job (type: {@link JobDTO})
+     * @throws ResourceNotFoundException if the job does not exist or has been purged
+     */
+    public JobDTO getJob(String id) {
+        return find(id).toDTO();
+    }
+
+    /**
+     * Cancels a job. A queued job does not run; a running job stops before its next chunk, keeping the chunks
+     * already committed. Cancelling a finished job has no effect.
+     *
+     * @param id the ID of the job (type: {@link String})
+     * @return the job (type: {@link JobDTO})
+     * @throws ResourceNotFoundException if the job does not exist or has been purged
+     */
+    public JobDTO cancelJob(String id) {
+        Job job = find(id);
+        job.cancel();
+        return job.toDTO();
+    }
+
+    /**
+     * Gets the file written by a succeeded export job.
+     *
+     * @param id the ID of the job (type: {@link String})
+     * @return the export file (type: {@link ExportFile})
+     * @throws ResourceNotFoundException if the job does not exist, is not an export or has not succeeded
+     */
+    public ExportFile getExportFile(String id) {
+        Job job = find(id);
+        if (job.type() != JobType.EXPORT || job.status() != JobStatus.SUCCEEDED) {
+            throw new ResourceNotFoundException(String.format("Job with id %s has no export file", id));
+        }
+        return new ExportFile(job.file(), job.format());
+    }
+
+    /**
+     * Removes finished jobs, and their files, that are older than the configured retention.
+     */
+    @Scheduled(fixedDelayString = "PT1M", initialDelayString = "PT1M")
+    public void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(config.retention());
+        jobs.values().removeIf(job -> {
+            boolean expired = job.status().isFinished() && job.finishedAt() != null && job.finishedAt().isBefore(cutoff);
+            if (expired) {
+                deleteFile(job);
+            }
+            return expired;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        jobs.values().forEach(Job::cancel);
+        executor.shutdown();
+        jobs.values().forEach(this::deleteFile);
+    }
+
+    private JobDTO submit(JobType type, Path file, ExportFormat format, Work work) {
+        Job job = new Job(UUID.randomUUID().toString(), type, throttle);
+        job.file(file, format);
+        jobs.put(job.id(), job);
+        try {
+            job.future(executor.submit(() -> run(job, work)));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id());
+            throw new JobQueueFullException(QUEUE_FULL_RETRY_AFTER);
+        }
+        return job.toDTO();
+    }
+
+    private void run(Job job, Work work) {
+        if (!job.start()) {
+            deleteFile(job);
+            return;
+        }
+        try {
+            job.succeed(work.run(job));
+        } catch (CancellationException ex) {
+            log.info("Job {} ({}) was cancelled", job.id(), job.type());
+            job.cancelled();
+            deleteFile(job);
+        } catch (Exception ex) {
+            log.warn("Job {} ({}) failed: {}", job.id(), job.type(), ex.getMessage());
+            job.fail(ex.getMessage());
+            deleteFile(job);
+        }
+    }
+
+    private static void copy(InputStream in, Path file, long maxBytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        long copied = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                copied += read;
+                if (copied > maxBytes) {
+                    throw new PayloadTooLargeException(String.format("An import may be at most %d bytes", maxBytes));
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private Job find(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Job", id);
+        }
+        return job;
+    }
+
+    private void deleteFile(Job job) {
+        if (job.file() == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(job.file());
+        } catch (IOException ex) {
+            log.warn("Could not delete job file {}: {}", job.file(), ex.getMessage());
+        }
+    }
+
+    /**
+     * The work of a job. It reports its progress to, and checks for cancellation through, the given job.
+     */
+    @FunctionalInterface
+    private interface Work {
+        Object run(JobProgress progress) throws Exception;
+    }
+}
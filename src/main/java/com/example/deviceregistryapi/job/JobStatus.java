@@ -0,0 +1,16 @@
+package com.example.deviceregistryapi.job;
+
+/**
+ * The states of a background job. A job ends in {@link #SUCCEEDED}, {@link #FAILED} or {@link #CANCELLED}.
+ */
+public enum JobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.deviceregistryapi.job;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Holds background jobs back while interactive requests are waiting for a database connection.
+ * <p>
+ * Jobs call {@link #awaitIdlePool()} between chunks. As long as threads are queued for a connection, the job waits,
+ * up to the configured maximum, so that the connection it would take goes to a request instead.
+ */
+@Component
+public class JobThrottle {
+
+    private static final long POLL_MILLIS = 10;
+
+    private final HikariDataSource hikariDataSource;
+    private final Duration maxDelay;
+
+    public JobThrottle(DataSource dataSource, DeviceRegistryProperties properties) {
+        this.hikariDataSource = hikari(dataSource);
+        this.maxDelay = properties.jobs().maxThrottleDelay();
+    }
+
+    /**
+     * Waits while other threads are waiting for a connection, at most for the configured maximum delay.
+     */
+    public void awaitIdlePool() {
+        // The pool is created on first use of the data source.
+        HikariPoolMXBean pool = hikariDataSource == null ? null : hikariDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        try {
+            while (pool.getThreadsAwaitingConnection() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(POLL_MILLIS);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException ex) {
+            // Not a Hikari pool: jobs are only limited by their concurrency.
+        }
+        return null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.deviceregistryapi.job;
+
+/**
+ * The kinds of background jobs.
+ */
+public enum JobType {
+    IMPORT,
+    EXPORT,
+    BULK_UPDATE,
+    BULK_DELETE
+}
@@ -0,0 +1,18 @@
+package com.example.deviceregistryapi.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link QueryCounter} with Hibernate.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCounter());
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.deviceregistryapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the number of SQL statements each request executes as the {@code http.server.requests.queries} summary,
+ * tagged like {@code http.server.requests} with the HTTP method, URI template and response status. The summaries are
+ * registered once per tag combination and reused.
+ * <p>
+ * Only statements executed on the request thread are counted; streamed exports that continue on an async thread are
+ * counted up to the point where the response is handed off.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<SummaryKey, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    private record SummaryKey(String method, String uri, int status) {
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = QueryCounter.stop();
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            SummaryKey key = new SummaryKey(request.getMethod(), uri == null ? "UNKNOWN" : uri.toString(), response.getStatus());
+            summaries.computeIfAbsent(key, this::register).record(queries);
+        }
+    }
+
+    private DistributionSummary register(SummaryKey key) {
+        return DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements executed per request")
+                .tag("method", key.method())
+                .tag("uri", key.uri())
+                .tag("status", Integer.toString(key.status()))
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.deviceregistryapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while counting is active.
+ * <p>
+ * Hibernate passes every statement through this inspector; {@link QueryCountFilter} starts and stops counting around
+ * each request.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    /**
+     * Starts counting statements on the current thread.
+     */
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Stops counting statements on the current thread.
+     *
+     * @return the number of statements since {@link #start()} (type: {@code int})
+     */
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
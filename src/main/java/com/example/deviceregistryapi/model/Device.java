@@ -1,6 +1,7 @@
 package com.example.deviceregistryapi.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.CreatedDate;
@@ -8,18 +9,28 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * Represents a device entity stored in the database.
+ * The brand is also stored in a normalized (lower case) form, so that case-insensitive and prefix searches can use an index.
+ * The version is incremented on every change and is exposed to clients as the {@code ETag} of the device.
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_device_brand_id", columnList = "brand, id"),
+        @Index(name = "idx_device_brand_normalized_id", columnList = "brand_normalized, id"),
+        @Index(name = "idx_device_name", columnList = "name"),
+        @Index(name = "idx_device_modified_at_id", columnList = "modified_at, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @Setter
 public class Device {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "device_seq")
+    @SequenceGenerator(name = "device_seq", sequenceName = "device_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -28,19 +39,42 @@ public class Device {
     @Column(nullable = false)
     private String brand;
 
+    @Setter(AccessLevel.NONE)
+    @Column(name = "brand_normalized", nullable = false)
+    private String brandNormalized;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @LastModifiedDate
-    @Column(nullable = false)
+    @Column(name = "modified_at", nullable = false)
     private LocalDateTime modifiedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public Device() {
     }
 
     public Device(String name, String brand) {
         this.name = name;
+        setBrand(brand);
+    }
+
+    public void setBrand(String brand) {
         this.brand = brand;
+        this.brandNormalized = normalizeBrand(brand);
+    }
+
+    /**
+     * Returns the form of a brand that is stored in {@code brand_normalized} and used for case-insensitive matching.
+     *
+     * @param brand the brand as entered (type: {@link String})
+     * @return the normalized brand, or {@code null} if the brand is {@code null} (type: {@link String})
+     */
+    public static String normalizeBrand(String brand) {
+        return brand == null ? null : brand.toLowerCase(Locale.ROOT);
     }
 }
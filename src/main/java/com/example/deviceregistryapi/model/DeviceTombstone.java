@@ -0,0 +1,54 @@
+package com.example.deviceregistryapi.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records that a device was deleted, so that the change feed can report deletions.
+ * Device IDs are never reused, so the ID of the deleted device is the primary key.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_device_tombstone_deleted_at_device_id", columnList = "deleted_at, device_id"))
+@Getter
+public class DeviceTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "device_id")
+    private Long deviceId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    protected DeviceTombstone() {
+    }
+
+    public DeviceTombstone(Long deviceId, LocalDateTime deletedAt) {
+        this.deviceId = deviceId;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public Long getId() {
+        return deviceId;
+    }
+
+    /**
+     * Tombstones are only ever inserted, so saving a new one must not trigger a select to check for an existing row.
+     */
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
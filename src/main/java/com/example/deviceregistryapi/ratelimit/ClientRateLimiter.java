@@ -0,0 +1,63 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limits the request rate of each client with a pair of {@link TokenBucket token buckets}, one for reads and one for
+ * writes.
+ * <p>
+ * Buckets are kept in a Caffeine cache, whose reads do not lock and whose writes lock only a small part of the table,
+ * and each bucket is updated with a compare-and-set; clients never contend with each other. A client that has been
+ * idle long enough to fill its buckets is dropped, since a new bucket is full as well. At most
+ * {@code max-clients} clients are kept; beyond that the least recently seen are dropped.
+ */
+@Component
+public class ClientRateLimiter {
+
+    private final DeviceRegistryProperties.RateLimit config;
+    private final Cache<String, ClientBuckets> clients;
+
+    public ClientRateLimiter(DeviceRegistryProperties properties) {
+        this.config = properties.rateLimit();
+        long refillNanos = Math.max(
+                TokenBucket.refillNanos(config.readsPerSecond(), config.readBurst()),
+                TokenBucket.refillNanos(config.writesPerSecond(), config.writeBurst()));
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(config.maxClients())
+                .expireAfterAccess(Duration.ofNanos(refillNanos))
+                .build();
+    }
+
+    /**
+     * Takes a request from the client's read or write budget.
+     *
+     * @param client the client identity, e.g. its principal or address (type: {@link String})
+     * @param write  whether the request is a write
+     * @throws TooManyRequestsException if the client's budget is used up
+     */
+    public void acquire(String client, boolean write) {
+        if (!config.enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        ClientBuckets buckets = clients.get(client, key -> new ClientBuckets(
+                new TokenBucket(config.readsPerSecond(), config.readBurst(), now),
+                new TokenBucket(config.writesPerSecond(), config.writeBurst(), now)));
+        long waitNanos = (write ? buckets.writes() : buckets.reads()).tryTake(now);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(
+                    String.format("Rate limit of %d %s per second exceeded",
+                            write ? config.writesPerSecond() : config.readsPerSecond(), write ? "writes" : "reads"),
+                    Duration.ofNanos(waitNanos));
+        }
+    }
+
+    private record ClientBuckets(TokenBucket reads, TokenBucket writes) {
+    }
+}
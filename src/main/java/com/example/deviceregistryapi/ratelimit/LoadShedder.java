@@ -0,0 +1,119 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rejects requests early while the service is overloaded, before they take a thread or a database connection for
+ * long.
+ * <p>
+ * Two signals are used. Requests beyond the maximum number in flight are rejected outright. In addition, the mean
+ * time to acquire a database connection (the {@code hikaricp.connections.acquire} timers) is sampled every second:
+ * while it is above the threshold, or requests are waiting for a connection without any being handed out, the share
+ * of rejected requests grows by a step per second, and it shrinks again once the pool has recovered. Requests only
+ * read a volatile and update a {@link LongAdder}, so neither check contends under load.
+ * <p>
+ * The in-flight count and the rejected share are published as {@code device.api.inflight} and
+ * {@code device.api.shed.ratio}.
+ */
+@Component
+public class LoadShedder {
+
+    // The share of rejected requests moves in steps of 10%, up to 90%; some requests always get through, so the
+    // pool wait time keeps being measured.
+    static final double STEP = 0.1;
+    static final int MAX_LEVEL = 9;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final DeviceRegistryProperties.LoadShedding config;
+    private final MeterRegistry meterRegistry;
+    private final LongAdder inFlight = new LongAdder();
+    private volatile int level;
+
+    // Only touched by the sampling thread.
+    private long lastAcquireCount;
+    private double lastAcquireNanos;
+
+    public LoadShedder(DeviceRegistryProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.loadShedding();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("device.api.inflight", inFlight, LongAdder::sum)
+                .description("API requests being handled")
+                .register(meterRegistry);
+        Gauge.builder("device.api.shed.ratio", this, LoadShedder::getShedRatio)
+                .description("Share of API requests rejected because the database is overloaded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request. Every admitted request must be followed by {@link #exit()}.
+     *
+     * @throws ServiceOverloadedException if the request is shed
+     */
+    public void enter() {
+        if (!config.enabled()) {
+            return;
+        }
+        double ratio = getShedRatio();
+        if (ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio) {
+            throw new ServiceOverloadedException("The database is overloaded, please retry later", RETRY_AFTER);
+        }
+        inFlight.increment();
+        // The sum is not an atomic snapshot, so the limit may be overshot by a few concurrent requests.
+        if (inFlight.sum() > config.maxInFlight()) {
+            inFlight.decrement();
+            throw new ServiceOverloadedException("Too many requests in progress, please retry later", RETRY_AFTER);
+        }
+    }
+
+    /**
+     * Marks the end of a request admitted by {@link #enter()}.
+     */
+    public void exit() {
+        if (config.enabled()) {
+            inFlight.decrement();
+        }
+    }
+
+    /**
+     * @return the share of requests currently rejected because the database is overloaded
+     */
+    public double getShedRatio() {
+        return level * STEP;
+    }
+
+    /**
+     * Adjusts the share of rejected requests to the connection pool wait time since the previous sample.
+     */
+    @Scheduled(fixedDelayString = "PT1S")
+    public void sample() {
+        long acquireCount = 0;
+        double acquireNanos = 0;
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            acquireCount += timer.count();
+            acquireNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+        double pending = meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+        long acquired = acquireCount - lastAcquireCount;
+        double waitedNanos = acquireNanos - lastAcquireNanos;
+        lastAcquireCount = acquireCount;
+        lastAcquireNanos = acquireNanos;
+
+        boolean overloaded = acquired > 0
+                ? waitedNanos / acquired > config.maxPoolWait().toNanos()
+                : pending > 0;
+        level = overloaded ? Math.min(MAX_LEVEL, level + 1) : Math.max(0, level - 1);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers the {@link RateLimitInterceptor} for the API. Actuator endpoints are not limited, so that health checks
+ * and metrics keep working under overload.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RateLimitConfiguration implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+
+/**
+ * Applies the {@link ClientRateLimiter} and the {@link LoadShedder} to API requests before they reach a controller.
+ * Rejections are thrown as exceptions, so that they are answered by the
+ * {@link com.example.deviceregistryapi.exception.GlobalExceptionHandler} like any other error.
+ * <p>
+ * Clients are identified by their authenticated principal, or by their address without one. Headers a client sets
+ * itself, such as an API key nobody checked, are not used: a client could send a new one with every request and never
+ * run out of budget.
+ * <p>
+ * A request counts as in flight while it occupies a request thread; a streamed response that continues
+ * asynchronously stops counting once it has been handed off.
+ */
+@Component
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED = RateLimitInterceptor.class.getName() + ".ADMITTED";
+
+    private final ClientRateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+
+    public RateLimitInterceptor(ClientRateLimiter rateLimiter, LoadShedder loadShedder) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async and error dispatches belong to a request that was already admitted.
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        rateLimiter.acquire(client(request), isWrite(request.getMethod()));
+        loadShedder.enter();
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        exit(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        exit(request);
+    }
+
+    private void exit(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            loadShedder.exit();
+        }
+    }
+
+    static String client(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        // Prefixed, so that a principal cannot share the budget of an address.
+        return principal != null ? "principal:" + principal.getName() : "address:" + request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(String method) {
+        return !("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket.
+ * <p>
+ * Instead of a token count and a refill time, the bucket keeps a single value: the time at which it would be full
+ * again. Taking a token moves that time one interval into the future; a request is rejected if that would put it more
+ * than the burst ahead of now. This is equivalent to a token bucket (it is the generic cell rate algorithm), but the
+ * state fits in one {@link AtomicLong} and is updated with a single compare-and-set.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param perSecond the rate at which tokens are added
+     * @param burst     the capacity of the bucket
+     * @param now       the current {@link System#nanoTime()}; the bucket starts full
+     */
+    TokenBucket(int perSecond, int burst, long now) {
+        this.intervalNanos = 1_000_000_000L / perSecond;
+        this.burstNanos = refillNanos(perSecond, burst);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return {@code 0} if a token was taken, otherwise the nanoseconds until one is available
+     */
+    long tryTake(long now) {
+        while (true) {
+            long current = fullAt.get();
+            // Time runs in nanoTime values, which may be negative; compare differences only.
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long excess = next - now - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @param perSecond the rate at which tokens are added
+     * @param burst     the capacity of the bucket
+     * @return how long an empty bucket takes to fill up, in nanoseconds
+     */
+    static long refillNanos(int perSecond, int burst) {
+        return 1_000_000_000L / perSecond * burst;
+    }
+}
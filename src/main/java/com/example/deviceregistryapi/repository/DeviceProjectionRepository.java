@@ -0,0 +1,41 @@
+package com.example.deviceregistryapi.repository;
+
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.model.Device;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads devices with only some of their columns. Rows are read as tuples straight into DTOs, so they are never
+ * loaded as managed entities.
+ */
+public interface DeviceProjectionRepository {
+
+    /**
+     * Finds a page of devices with only the given fields; the other fields of the returned DTOs are {@code null}.
+     *
+     * @param specification the devices to find, or {@code null} for all devices
+     * @param fields        the fields to select; must include the ID
+     * @param pageable      the page and sort order
+     * @return the page of devices
+     */
+    Page<DeviceResponseDTO> findProjected(Specification<Device> specification, Set<DeviceField> fields, Pageable pageable);
+
+    /**
+     * Like {@link #findProjected(Specification, Set, Pageable)}, without counting the total.
+     *
+     * @param specification the devices to find, or {@code null} for all devices
+     * @param fields        the fields to select; must include the ID
+     * @param sort          the sort order
+     * @param limit         the maximum number of devices
+     * @return the devices
+     */
+    List<DeviceResponseDTO> findProjected(Specification<Device> specification, Set<DeviceField> fields, Sort sort, Limit limit);
+}
@@ -0,0 +1,99 @@
+package com.example.deviceregistryapi.repository;
+
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.model.Device;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Custom fragments do not inherit the read-only transactions of Spring Data's own repository methods, so the page
+ * and its count are read in one read-only transaction here.
+ */
+@Transactional(readOnly = true)
+class DeviceProjectionRepositoryImpl implements DeviceProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<DeviceResponseDTO> findProjected(Specification<Device> specification, Set<DeviceField> fields, Pageable pageable) {
+        List<DeviceResponseDTO> content = pageable.isPaged()
+                ? select(specification, fields, pageable.getSort(), (int) pageable.getOffset(), pageable.getPageSize())
+                : select(specification, fields, pageable.getSort(), 0, -1);
+        // The count query is skipped when the page alone tells the total, e.g. a partial first page.
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<DeviceResponseDTO> findProjected(Specification<Device> specification, Set<DeviceField> fields, Sort sort, Limit limit) {
+        return select(specification, fields, sort, 0, limit.isLimited() ? limit.max() : -1);
+    }
+
+    private List<DeviceResponseDTO> select(Specification<Device> specification, Set<DeviceField> fields, Sort sort,
+                                           int offset, int maxResults) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Device> root = query.from(Device.class);
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> root.get(field.getAttribute()).alias(field.getAttribute()))
+                .toList());
+        where(query, root, builder, specification);
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query).setFirstResult(offset);
+        if (maxResults >= 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        return typedQuery.getResultList().stream()
+                .map(tuple -> toDTO(tuple, fields))
+                .toList();
+    }
+
+    private long count(Specification<Device> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Device> root = query.from(Device.class);
+        query.select(builder.count(root));
+        where(query, root, builder, specification);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void where(CriteriaQuery<?> query, Root<Device> root, CriteriaBuilder builder,
+                              Specification<Device> specification) {
+        if (specification == null) {
+            return;
+        }
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+
+    private static DeviceResponseDTO toDTO(Tuple tuple, Set<DeviceField> fields) {
+        return new DeviceResponseDTO(
+                tuple.get(DeviceField.ID.getAttribute(), Long.class),
+                fields.contains(DeviceField.NAME) ? tuple.get(DeviceField.NAME.getAttribute(), String.class) : null,
+                fields.contains(DeviceField.BRAND) ? tuple.get(DeviceField.BRAND.getAttribute(), String.class) : null,
+                fields.contains(DeviceField.CREATED_AT) ? tuple.get(DeviceField.CREATED_AT.getAttribute(), LocalDateTime.class) : null);
+    }
+}
@@ -1,12 +1,208 @@
 package com.example.deviceregistryapi.repository;
 
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
 import com.example.deviceregistryapi.model.Device;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface DeviceRepository extends JpaRepository<Device, Long> {
+public interface DeviceRepository extends JpaRepository<Device, Long>, DeviceProjectionRepository {
     Page<Device> findAllByBrand(String brand, Pageable pageable);
+
+    Page<Device> findAllByBrandIn(Collection<String> brands, Pageable pageable);
+
+    Page<Device> findAllByBrandNormalizedIn(Collection<String> brandsNormalized, Pageable pageable);
+
+    Page<Device> findAllByBrandNormalizedStartingWith(String prefixNormalized, Pageable pageable);
+
+    List<Device> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Device> findByBrandAndIdGreaterThanOrderByIdAsc(String brand, Long id, Limit limit);
+
+    List<Device> findByBrandInAndIdGreaterThanOrderByIdAsc(Collection<String> brands, Long id, Limit limit);
+
+    List<Device> findByBrandNormalizedInAndIdGreaterThanOrderByIdAsc(Collection<String> brandsNormalized, Long id, Limit limit);
+
+    List<Device> findByBrandNormalizedStartingWithAndIdGreaterThanOrderByIdAsc(String prefixNormalized, Long id, Limit limit);
+
+    /**
+     * Finds devices modified after the position ({@code since}, {@code afterId}) up to {@code until}, ordered by position.
+     */
+    @Query("""
+            select d from Device d
+            where d.modifiedAt <= :until
+              and (d.modifiedAt > :since or (d.modifiedAt = :since and d.id > :afterId))
+            order by d.modifiedAt, d.id
+            """)
+    List<Device> findModifiedAfter(@Param("since") LocalDateTime since,
+                                   @Param("afterId") Long afterId,
+                                   @Param("until") LocalDateTime until,
+                                   Pageable pageable);
+
+    /**
+     * Streams devices as DTOs ordered by ID. Rows are fetched in chunks and never become managed entities,
+     * so memory use does not grow with the result. The stream must be consumed and closed within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.example.deviceregistryapi.dto.DeviceResponseDTO(d.id, d.name, d.brand, d.createdAt)
+            from Device d
+            where (:brand is null or d.brand = :brand)
+              and (:modifiedFrom is null or d.modifiedAt >= :modifiedFrom)
+              and (:modifiedTo is null or d.modifiedAt < :modifiedTo)
+            order by d.id
+            """)
+    Stream<DeviceResponseDTO> streamAll(@Param("brand") String brand,
+                                        @Param("modifiedFrom") LocalDateTime modifiedFrom,
+                                        @Param("modifiedTo") LocalDateTime modifiedTo);
+
+    /**
+     * Reads a device as a DTO, without loading it as a managed entity.
+     */
+    @Query("""
+            select new com.example.deviceregistryapi.dto.DeviceResponseDTO(d.id, d.name, d.brand, d.createdAt, d.version)
+            from Device d
+            where d.id = :id
+            """)
+    Optional<DeviceResponseDTO> findResponseById(@Param("id") Long id);
+
+    /**
+     * Replaces the name and brand of a device in a single statement, without loading it first.
+     * Auditing and versioning do not apply to bulk statements, so the modification time is passed explicitly and the
+     * version is incremented here. If an expected version is given, the device is only updated if it still has it.
+     *
+     * @return the number of updated devices, {@code 0} if the device does not exist or has another version
+     */
+    @Modifying
+    @Query("""
+            update Device d
+            set d.name = :name, d.brand = :brand, d.brandNormalized = :brandNormalized, d.modifiedAt = :modifiedAt,
+                d.version = d.version + 1
+            where d.id = :id
+              and (:expectedVersion is null or d.version = :expectedVersion)
+            """)
+    int updateById(@Param("id") Long id,
+                   @Param("name") String name,
+                   @Param("brand") String brand,
+                   @Param("brandNormalized") String brandNormalized,
+                   @Param("modifiedAt") LocalDateTime modifiedAt,
+                   @Param("expectedVersion") Long expectedVersion);
+
+    /**
+     * Like {@link #updateById}, but keeps the current value of every {@code null} argument.
+     *
+     * @return the number of updated devices, {@code 0} if the device does not exist or has another version
+     */
+    @Modifying
+    @Query("""
+            update Device d
+            set d.name = coalesce(:name, d.name),
+                d.brand = coalesce(:brand, d.brand),
+                d.brandNormalized = coalesce(:brandNormalized, d.brandNormalized),
+                d.modifiedAt = :modifiedAt,
+                d.version = d.version + 1
+            where d.id = :id
+              and (:expectedVersion is null or d.version = :expectedVersion)
+            """)
+    int patchById(@Param("id") Long id,
+                  @Param("name") String name,
+                  @Param("brand") String brand,
+                  @Param("brandNormalized") String brandNormalized,
+                  @Param("modifiedAt") LocalDateTime modifiedAt,
+                  @Param("expectedVersion") Long expectedVersion);
+
+    /**
+     * Deletes a device in a single statement, without loading it first.
+     * If an expected version is given, the device is only deleted if it still has it.
+     *
+     * @return the number of deleted devices, {@code 0} if the device does not exist or has another version
+     */
+    @Modifying
+    @Query("delete from Device d where d.id = :id and (:expectedVersion is null or d.version = :expectedVersion)")
+    int deleteDirectlyById(@Param("id") Long id, @Param("expectedVersion") Long expectedVersion);
+
+    /**
+     * Finds the IDs of a brand's devices after {@code afterId}, ordered by ID, for walking the brand in chunks.
+     */
+    @Query("select d.id from Device d where d.brand = :brand and d.id > :afterId order by d.id")
+    List<Long> findIdsByBrandAfter(@Param("brand") String brand, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Locks the devices with the given IDs until the end of the transaction.
+     *
+     * @return the IDs of the devices that exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select d.id from Device d where d.id in :ids")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads devices as DTOs ordered by ID, without loading them as managed entities.
+     */
+    @Query("""
+            select new com.example.deviceregistryapi.dto.DeviceResponseDTO(d.id, d.name, d.brand, d.createdAt, d.version)
+            from Device d
+            where d.id in :ids
+            order by d.id
+            """)
+    List<DeviceResponseDTO> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads devices with an ID greater than {@code afterId} as DTOs ordered by ID, without loading them as managed
+     * entities.
+     */
+    @Query("""
+            select new com.example.deviceregistryapi.dto.DeviceResponseDTO(d.id, d.name, d.brand, d.createdAt, d.version)
+            from Device d
+            where d.id > :afterId
+            order by d.id
+            """)
+    List<DeviceResponseDTO> findResponsesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Like {@link #patchById}, for many devices in a single statement.
+     *
+     * @return the number of updated devices
+     */
+    @Modifying
+    @Query("""
+            update Device d
+            set d.name = coalesce(:name, d.name),
+                d.brand = coalesce(:brand, d.brand),
+                d.brandNormalized = coalesce(:brandNormalized, d.brandNormalized),
+                d.modifiedAt = :modifiedAt,
+                d.version = d.version + 1
+            where d.id in :ids
+            """)
+    int patchAllByIdIn(@Param("ids") Collection<Long> ids,
+                       @Param("name") String name,
+                       @Param("brand") String brand,
+                       @Param("brandNormalized") String brandNormalized,
+                       @Param("modifiedAt") LocalDateTime modifiedAt);
+
+    /**
+     * Deletes many devices in a single statement.
+     *
+     * @return the number of deleted devices
+     */
+    @Modifying
+    @Query("delete from Device d where d.id in :ids")
+    int deleteDirectlyByIdIn(@Param("ids") Collection<Long> ids);
 }
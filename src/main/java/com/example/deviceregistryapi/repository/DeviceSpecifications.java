@@ -0,0 +1,40 @@
+package com.example.deviceregistryapi.repository;
+
+import com.example.deviceregistryapi.model.Device;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Conditions on devices for {@link DeviceProjectionRepository}. Each one matches the derived query of
+ * {@link DeviceRepository} with the same meaning, so it is served by the same index.
+ */
+public final class DeviceSpecifications {
+
+    private static final char ESCAPE = '\\';
+
+    private DeviceSpecifications() {
+    }
+
+    public static Specification<Device> brandIn(Collection<String> brands) {
+        return (root, query, builder) -> brands.size() == 1
+                ? builder.equal(root.get("brand"), brands.iterator().next())
+                : root.get("brand").in(brands);
+    }
+
+    public static Specification<Device> brandNormalizedIn(Collection<String> brandsNormalized) {
+        return (root, query, builder) -> root.get("brandNormalized").in(brandsNormalized);
+    }
+
+    public static Specification<Device> brandNormalizedStartingWith(String prefixNormalized) {
+        return (root, query, builder) -> builder.like(root.<String>get("brandNormalized"), escapeLike(prefixNormalized) + "%", ESCAPE);
+    }
+
+    public static Specification<Device> idGreaterThan(Long id) {
+        return (root, query, builder) -> builder.greaterThan(root.<Long>get("id"), id);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
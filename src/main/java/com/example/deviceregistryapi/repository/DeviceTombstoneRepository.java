@@ -0,0 +1,34 @@
+package com.example.deviceregistryapi.repository;
+
+import com.example.deviceregistryapi.model.DeviceTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeviceTombstoneRepository extends JpaRepository<DeviceTombstone, Long> {
+
+    /**
+     * Finds deletions after the position ({@code since}, {@code afterId}) up to {@code until}, ordered by position.
+     */
+    @Query("""
+            select t from DeviceTombstone t
+            where t.deletedAt <= :until
+              and (t.deletedAt > :since or (t.deletedAt = :since and t.deviceId > :afterId))
+            order by t.deletedAt, t.deviceId
+            """)
+    List<DeviceTombstone> findDeletedAfter(@Param("since") LocalDateTime since,
+                                           @Param("afterId") Long afterId,
+                                           @Param("until") LocalDateTime until,
+                                           Pageable pageable);
+
+    @Modifying
+    @Query("delete from DeviceTombstone t where t.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,39 @@
+package com.example.deviceregistryapi.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How the {@code brand} parameter of a device search is matched. All modes are served by an index.
+ */
+public enum BrandMatch {
+
+    /**
+     * The brand must match exactly, including case. Several comma separated brands may be given.
+     */
+    EXACT,
+
+    /**
+     * The brand must match ignoring case. Several comma separated brands may be given.
+     */
+    IGNORE_CASE,
+
+    /**
+     * The brand must start with the given prefix, ignoring case. Only a single prefix may be given.
+     */
+    PREFIX;
+
+    /**
+     * Resolves a match mode from its name, ignoring case, e.g. {@code ignore_case}.
+     *
+     * @param name the name of the mode (type: {@link String})
+     * @return the matching mode (type: {@link BrandMatch})
+     * @throws IllegalArgumentException if the mode is not supported
+     */
+    public static BrandMatch fromName(String name) {
+        return Arrays.stream(values())
+                .filter(match -> match.name().equals(name.toUpperCase(Locale.ROOT).replace('-', '_')))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported brand match: %s", name)));
+    }
+}
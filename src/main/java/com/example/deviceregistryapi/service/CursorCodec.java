@@ -0,0 +1,100 @@
+package com.example.deviceregistryapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset pagination.
+ * Clients must treat cursors as opaque, which leaves room to change their contents later.
+ */
+final class CursorCodec {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorCodec() {
+    }
+
+    /**
+     * A position in a sequence ordered by time and then by ID.
+     */
+    record Position(LocalDateTime at, long id) {
+    }
+
+    /**
+     * Encodes the ID of the last device of a slice.
+     *
+     * @param id the ID of the last device returned (type: {@link Long})
+     * @return the opaque cursor (type: {@link String})
+     */
+    static String encodeId(long id) {
+        return encode(Long.toString(id));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeId(long)}. An empty cursor denotes the first slice.
+     *
+     * @param cursor the opaque cursor (type: {@link String})
+     * @return the ID after which the next slice starts (type: {@link Long})
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static long decodeId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Encodes the position of the last item of a slice ordered by time and ID.
+     *
+     * @param position the position of the last item returned (type: {@link Position})
+     * @return the opaque cursor (type: {@link String})
+     */
+    static String encodePosition(Position position) {
+        return encode(position.at() + "|" + position.id());
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodePosition(Position)}.
+     *
+     * @param cursor the opaque cursor (type: {@link String})
+     * @return the position after which the next slice starts (type: {@link Position})
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    static Position decodePosition(String cursor) {
+        try {
+            String value = decode(cursor);
+            int separator = value.indexOf('|');
+            return new Position(LocalDateTime.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Validates a requested slice size and caps it at the configured maximum.
+     *
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    static int pageSize(int size, int maxPageSize) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private static String encode(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        return new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+    }
+}
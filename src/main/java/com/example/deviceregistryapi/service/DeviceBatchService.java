@@ -0,0 +1,371 @@
+package com.example.deviceregistryapi.service;
+
+import com.example.deviceregistryapi.cache.DeviceCache;
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.BatchItemResultDTO;
+import com.example.deviceregistryapi.dto.BatchResultDTO;
+import com.example.deviceregistryapi.dto.BulkResultDTO;
+import com.example.deviceregistryapi.dto.BulkUpdateRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceFilterDTO;
+import com.example.deviceregistryapi.dto.DeviceRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEvent;
+import com.example.deviceregistryapi.job.JobProgress;
+import com.example.deviceregistryapi.model.Device;
+import com.example.deviceregistryapi.model.DeviceTombstone;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.example.deviceregistryapi.repository.DeviceTombstoneRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This service handles bulk operations on devices.
+ * Devices are written in chunks, one transaction per chunk, so that Hibernate can group the inserts into JDBC batches.
+ * Bulk updates and deletes run one set-based statement per chunk of IDs, also one transaction per chunk, so that a
+ * mass operation neither holds locks on the whole selection nor loses all progress on a failure.
+ */
+@Service
+@Timed("device.service")
+@RequiredArgsConstructor
+@Slf4j
+public class DeviceBatchService {
+
+    private final DeviceRepository deviceRepository;
+    private final DeviceTombstoneRepository deviceTombstoneRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final DeviceRegistryProperties properties;
+    private final DeviceCache deviceCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Adds a list of devices.
+     * Invalid items are reported individually and do not prevent the other items from being stored.
+     *
+     * @param deviceRequestDTOs the data for the new devices (type: {@link List}<{@link DeviceRequestDTO}>)
+     * @return a per-item summary of the batch (type: {@link BatchResultDTO})
+     * @throws IllegalArgumentException if the batch exceeds the configured maximum size
+     */
+    public BatchResultDTO addDevices(List<DeviceRequestDTO> deviceRequestDTOs) {
+        checkBatchSize(deviceRequestDTOs.size());
+        ChunkWriter writer = new ChunkWriter(JobProgress.NONE, Integer.MAX_VALUE);
+        deviceRequestDTOs.forEach(writer::add);
+        return writer.finish();
+    }
+
+    /**
+     * Adds devices from a newline-delimited JSON stream, one {@link DeviceRequestDTO} per line.
+     * Lines are read and written chunk by chunk, so the whole stream is never held in memory. Since earlier chunks
+     * are already stored when the stream turns out to be too long, it is not rejected as a whole: reading stops after
+     * the configured maximum number of items and the result is marked as truncated. Lines longer than the configured
+     * maximum line size are skipped without being buffered and reported as failed items.
+     *
+     * @param ndjson the request body (type: {@link InputStream})
+     * @return a per-item summary of the batch (type: {@link BatchResultDTO})
+     * @throws IOException if the stream cannot be read
+     */
+    public BatchResultDTO addDevices(InputStream ndjson) throws IOException {
+        return addDevices(ndjson, properties.batch().maxItems(), new ChunkWriter(JobProgress.NONE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Imports devices from a newline-delimited JSON stream as a background job.
+     * Unlike a batch request, an import may contain up to {@code device-registry.jobs.max-import-items} devices, and
+     * since its result is kept for the job retention, it only lists the first
+     * {@code device-registry.jobs.max-import-errors} failed lines; stored devices are only counted.
+     *
+     * @param ndjson   the devices, one per line (type: {@link InputStream})
+     * @param progress receives the number of processed lines and is checked before each chunk (type: {@link JobProgress})
+     * @return the counts and the first failed lines of the import, truncated beyond the maximum size (type: {@link BatchResultDTO})
+     * @throws IOException if the stream cannot be read
+     */
+    public BatchResultDTO importDevices(InputStream ndjson, JobProgress progress) throws IOException {
+        DeviceRegistryProperties.Jobs jobs = properties.jobs();
+        return addDevices(ndjson, jobs.maxImportItems(), new ChunkWriter(progress, jobs.maxImportErrors()));
+    }
+
+    private BatchResultDTO addDevices(InputStream ndjson, int maxItems, ChunkWriter writer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(DeviceRequestDTO.class);
+        int maxLineBytes = (int) properties.batch().maxLineSize().toBytes();
+        try (InputStream in = ndjson) {
+            NdjsonLines lines = new NdjsonLines(in, maxLineBytes);
+            while (lines.next()) {
+                if (lines.isBlank()) {
+                    continue;
+                }
+                if (writer.size() >= maxItems) {
+                    // Nothing beyond the limit is stored, so the rest of the stream is not worth reading.
+                    writer.truncate();
+                    break;
+                }
+                if (lines.isTooLong()) {
+                    writer.reject(String.format("A line may be at most %d bytes long", maxLineBytes));
+                    continue;
+                }
+                try {
+                    writer.add(reader.readValue(lines.bytes(), 0, lines.length()));
+                } catch (JsonProcessingException ex) {
+                    writer.reject("Malformed JSON: " + ex.getOriginalMessage());
+                }
+            }
+        }
+        return writer.finish();
+    }
+
+    /**
+     * Applies the non-blank fields of {@code set} to every device selected by the filter.
+     *
+     * @param request the filter and the new values (type: {@link BulkUpdateRequestDTO})
+     * @return the number of updated devices and the requested IDs that were not found (type: {@link BulkResultDTO})
+     * @throws IllegalArgumentException if the filter is invalid, no field is set, or too many IDs are given
+     */
+    public BulkResultDTO updateDevices(BulkUpdateRequestDTO request) {
+        return updateDevices(request, JobProgress.NONE);
+    }
+
+    /**
+     * Applies the non-blank fields of {@code set} to every device selected by the filter, as a background job.
+     *
+     * @param request  the filter and the new values (type: {@link BulkUpdateRequestDTO})
+     * @param progress receives the number of processed IDs and is checked before each chunk (type: {@link JobProgress})
+     * @return the number of updated devices and the requested IDs that were not found (type: {@link BulkResultDTO})
+     * @throws IllegalArgumentException if the filter is invalid, no field is set, or too many IDs are given
+     */
+    public BulkResultDTO updateDevices(BulkUpdateRequestDTO request, JobProgress progress) {
+        DeviceRequestDTO set = request.set();
+        String name = set == null || set.name() == null || set.name().isBlank() ? null : set.name();
+        String brand = set == null || set.brand() == null || set.brand().isBlank() ? null : set.brand();
+        if (name == null && brand == null) {
+            throw new IllegalArgumentException("At least one field to update is required");
+        }
+        return forEachChunk(request.filter(), progress, ids -> transactionTemplate.execute(status -> {
+            if (deviceRepository.patchAllByIdIn(ids, name, brand, Device.normalizeBrand(brand), LocalDateTime.now()) == 0) {
+                return List.<Long>of();
+            }
+            List<DeviceResponseDTO> updated = deviceRepository.findResponsesByIdIn(ids);
+            updated.forEach(device -> {
+                deviceCache.putWritten(device);
+                eventPublisher.publishEvent(DeviceEvent.updated(device));
+            });
+            return updated.stream().map(DeviceResponseDTO::id).toList();
+        }));
+    }
+
+    /**
+     * Deletes every device selected by the filter and records their tombstones for the change feed.
+     *
+     * @param filter the devices to delete (type: {@link DeviceFilterDTO})
+     * @return the number of deleted devices and the requested IDs that were not found (type: {@link BulkResultDTO})
+     * @throws IllegalArgumentException if the filter is invalid or too many IDs are given
+     */
+    public BulkResultDTO deleteDevices(DeviceFilterDTO filter) {
+        return deleteDevices(filter, JobProgress.NONE);
+    }
+
+    /**
+     * Deletes every device selected by the filter and records their tombstones, as a background job.
+     *
+     * @param filter   the devices to delete (type: {@link DeviceFilterDTO})
+     * @param progress receives the number of processed IDs and is checked before each chunk (type: {@link JobProgress})
+     * @return the number of deleted devices and the requested IDs that were not found (type: {@link BulkResultDTO})
+     * @throws IllegalArgumentException if the filter is invalid or too many IDs are given
+     */
+    public BulkResultDTO deleteDevices(DeviceFilterDTO filter, JobProgress progress) {
+        return forEachChunk(filter, progress, ids -> transactionTemplate.execute(status -> {
+            // Locking first tells exactly which devices this statement deletes, so each gets one tombstone.
+            List<Long> existing = deviceRepository.lockExistingIds(ids);
+            if (existing.isEmpty()) {
+                return existing;
+            }
+            deviceRepository.deleteDirectlyByIdIn(existing);
+            LocalDateTime deletedAt = LocalDateTime.now();
+            deviceTombstoneRepository.saveAll(existing.stream().map(id -> new DeviceTombstone(id, deletedAt)).toList());
+            existing.forEach(id -> {
+                deviceCache.evict(id);
+                eventPublisher.publishEvent(DeviceEvent.deleted(id));
+            });
+            return existing;
+        }));
+    }
+
+    /**
+     * Runs an operation on the selected IDs chunk by chunk. The operation returns the IDs it affected.
+     */
+    private BulkResultDTO forEachChunk(DeviceFilterDTO filter, JobProgress progress,
+                                       Function<List<Long>, List<Long>> operation) {
+        boolean byIds = filter != null && filter.ids() != null && !filter.ids().isEmpty();
+        boolean byBrand = filter != null && filter.brand() != null && !filter.brand().isBlank();
+        if (byIds == byBrand) {
+            throw new IllegalArgumentException("Either a list of ids or a brand is required");
+        }
+        int chunkSize = properties.batch().chunkSize();
+        int affected = 0;
+
+        if (byBrand) {
+            long afterId = 0L;
+            List<Long> ids;
+            // Read on the primary, like the writes that follow: a lagging replica could miss devices of the brand.
+            while (!(ids = findIdsByBrandAfter(filter.brand(), afterId, chunkSize)).isEmpty()) {
+                progress.checkpoint();
+                affected += operation.apply(ids).size();
+                progress.advance(ids.size());
+                afterId = ids.get(ids.size() - 1);
+            }
+            return new BulkResultDTO(affected, List.of());
+        }
+
+        List<Long> requested = filter.ids().stream().filter(Objects::nonNull).distinct().toList();
+        checkBatchSize(requested.size());
+        progress.total(requested.size());
+        Set<Long> found = new HashSet<>();
+        for (int from = 0; from < requested.size(); from += chunkSize) {
+            progress.checkpoint();
+            List<Long> chunk = requested.subList(from, Math.min(from + chunkSize, requested.size()));
+            List<Long> done = operation.apply(chunk);
+            found.addAll(done);
+            affected += done.size();
+            progress.advance(chunk.size());
+        }
+        List<Long> notFound = requested.stream().filter(id -> !found.contains(id)).toList();
+        return new BulkResultDTO(affected, notFound);
+    }
+
+    private List<Long> findIdsByBrandAfter(String brand, long afterId, int chunkSize) {
+        return transactionTemplate.execute(status -> deviceRepository.findIdsByBrandAfter(brand, afterId, Limit.of(chunkSize)));
+    }
+
+    private void checkBatchSize(int size) {
+        int maxItems = properties.batch().maxItems();
+        if (size > maxItems) {
+            throw new IllegalArgumentException(tooManyItems(maxItems));
+        }
+    }
+
+    private static String tooManyItems(int maxItems) {
+        return String.format("A batch may contain at most %d devices", maxItems);
+    }
+
+    private String describe(Set<ConstraintViolation<DeviceRequestDTO>> violations) {
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Collects validated devices and saves them once a chunk is full.
+     */
+    private final class ChunkWriter {
+
+        private final int chunkSize = properties.batch().chunkSize();
+        private final JobProgress progress;
+        // Below Integer.MAX_VALUE, only that many failures are listed and successes only counted.
+        private final int maxErrors;
+        private int errors;
+        private final List<BatchItemResultDTO> items = new ArrayList<>();
+        private final List<Device> pending = new ArrayList<>(chunkSize);
+        private final List<Integer> pendingIndexes = new ArrayList<>(chunkSize);
+        private int size;
+        private int succeeded;
+        private int reported;
+        private boolean truncated;
+
+        ChunkWriter(JobProgress progress, int maxErrors) {
+            this.progress = progress;
+            this.maxErrors = maxErrors;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(DeviceRequestDTO deviceRequestDTO) {
+            int index = size++;
+            if (deviceRequestDTO == null) {
+                fail(index, "Device data is required");
+                return;
+            }
+            Set<ConstraintViolation<DeviceRequestDTO>> violations = validator.validate(deviceRequestDTO);
+            if (!violations.isEmpty()) {
+                fail(index, describe(violations));
+                return;
+            }
+            pending.add(new Device(deviceRequestDTO.name(), deviceRequestDTO.brand()));
+            pendingIndexes.add(index);
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(String error) {
+            fail(size++, error);
+        }
+
+        void truncate() {
+            truncated = true;
+        }
+
+        BatchResultDTO finish() {
+            flush();
+            progress.advance(size - reported);
+            reported = size;
+            items.sort(Comparator.comparingInt(BatchItemResultDTO::index));
+            return new BatchResultDTO(size, succeeded, size - succeeded, truncated, items);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            progress.checkpoint();
+            try {
+                List<Device> saved = deviceRepository.saveAll(pending);
+                if (maxErrors == Integer.MAX_VALUE) {
+                    for (int i = 0; i < saved.size(); i++) {
+                        items.add(BatchItemResultDTO.success(pendingIndexes.get(i), saved.get(i).getId()));
+                    }
+                }
+                succeeded += saved.size();
+                deviceCache.evictMissing(saved.stream().map(Device::getId).toList());
+                saved.forEach(device -> eventPublisher.publishEvent(DeviceEvent.created(new DeviceResponseDTO(device))));
+            } catch (DataAccessException ex) {
+                log.warn("Failed to store a chunk of {} devices: {}", pending.size(), ex.getMessage());
+                pendingIndexes.forEach(index -> fail(index, "Device could not be stored"));
+            }
+            pending.clear();
+            pendingIndexes.clear();
+            progress.advance(size - reported);
+            reported = size;
+        }
+
+        private void fail(int index, String error) {
+            if (errors++ < maxErrors) {
+                items.add(BatchItemResultDTO.failure(index, error));
+            }
+        }
+    }
+}
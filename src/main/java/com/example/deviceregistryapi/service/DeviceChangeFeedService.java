@@ -0,0 +1,85 @@
+package com.example.deviceregistryapi.service;
+
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.ChangeFeedDTO;
+import com.example.deviceregistryapi.dto.DeviceChangeDTO;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.example.deviceregistryapi.repository.DeviceTombstoneRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * This service provides the incremental change feed of the device registry.
+ * Upserts come from the indexed {@code modifiedAt} of devices and deletions from device tombstones.
+ */
+@Service
+@Timed("device.service")
+@RequiredArgsConstructor
+@Slf4j
+public class DeviceChangeFeedService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final DeviceRepository deviceRepository;
+    private final DeviceTombstoneRepository deviceTombstoneRepository;
+    private final DeviceRegistryProperties properties;
+
+    /**
+     * Gets the changes after a cursor, or at or after a point in time.
+     *
+     * @param since the time from which changes are returned when no cursor is given; {@code null} means from the
+     *              beginning (type: {@link LocalDateTime})
+     * @param after the cursor returned by the previous poll, or empty (type: {@link String})
+     * @param size  the maximum number of changes to return (type: {@code int})
+     * @return the changes ordered by time, with the cursor for the next poll (type: {@link ChangeFeedDTO})
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeedDTO getChanges(LocalDateTime since, String after, int size) {
+        int pageSize = CursorCodec.pageSize(size, properties.pagination().maxPageSize());
+        CursorCodec.Position from = after == null || after.isEmpty()
+                ? new CursorCodec.Position(since == null ? BEGINNING : since, 0L)
+                : CursorCodec.decodePosition(after);
+        LocalDateTime until = LocalDateTime.now().minus(properties.changes().safetyLag());
+
+        // Each source is read one row past the page, so the merged result tells whether more changes exist.
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<DeviceChangeDTO> changes = Stream.concat(
+                        deviceRepository.findModifiedAfter(from.at(), from.id(), until, limit).stream()
+                                .map(DeviceChangeDTO::upsert),
+                        deviceTombstoneRepository.findDeletedAfter(from.at(), from.id(), until, limit).stream()
+                                .map(DeviceChangeDTO::delete))
+                .sorted(Comparator.comparing(DeviceChangeDTO::changedAt).thenComparing(DeviceChangeDTO::id))
+                .toList();
+
+        boolean hasMore = changes.size() > pageSize;
+        List<DeviceChangeDTO> page = hasMore ? changes.subList(0, pageSize) : changes;
+        CursorCodec.Position next = page.isEmpty()
+                ? from
+                : new CursorCodec.Position(page.get(page.size() - 1).changedAt(), page.get(page.size() - 1).id());
+        return new ChangeFeedDTO(page, CursorCodec.encodePosition(next), hasMore);
+    }
+
+    /**
+     * Removes tombstones that are older than the configured retention.
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1M")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = deviceTombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(properties.changes().tombstoneRetention()));
+        if (purged > 0) {
+            log.info("Purged {} device tombstones", purged);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.deviceregistryapi.service;
+
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.job.JobProgress;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * This service exports the device registry as a stream.
+ * Devices are written to the output as they are read from the database, so memory use is constant regardless of the
+ * number of devices.
+ */
+@Service
+@Timed("device.service")
+@RequiredArgsConstructor
+public class DeviceExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final DeviceRepository deviceRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Writes all devices matching the filters to the output, ordered by ID.
+     *
+     * @param format       the output format (type: {@link ExportFormat})
+     * @param brand        only export devices of this brand, or {@code null} for all brands (type: {@link String})
+     * @param modifiedFrom only export devices modified at or after this time, or {@code null} (type: {@link LocalDateTime})
+     * @param modifiedTo   only export devices modified before this time, or {@code null} (type: {@link LocalDateTime})
+     * @param out          the stream to write to; it is flushed but not closed (type: {@link OutputStream})
+     * @throws IOException if writing to the output fails
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, String brand, LocalDateTime modifiedFrom, LocalDateTime modifiedTo,
+                       OutputStream out) throws IOException {
+        export(format, brand, modifiedFrom, modifiedTo, out, JobProgress.NONE);
+    }
+
+    /**
+     * Writes all devices matching the filters to the output as a background job.
+     * The job may be cancelled every {@value #PROGRESS_INTERVAL} devices.
+     *
+     * @param format       the output format (type: {@link ExportFormat})
+     * @param brand        only export devices of this brand, or {@code null} for all brands (type: {@link String})
+     * @param modifiedFrom only export devices modified at or after this time, or {@code null} (type: {@link LocalDateTime})
+     * @param modifiedTo   only export devices modified before this time, or {@code null} (type: {@link LocalDateTime})
+     * @param out          the stream to write to; it is flushed but not closed (type: {@link OutputStream})
+     * @param progress     receives the number of exported devices (type: {@link JobProgress})
+     * @throws IOException if writing to the output fails
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, String brand, LocalDateTime modifiedFrom, LocalDateTime modifiedTo,
+                       OutputStream out, JobProgress progress) throws IOException {
+        AtomicLong count = new AtomicLong();
+        try (Stream<DeviceResponseDTO> devices = deviceRepository.streamAll(brand, modifiedFrom, modifiedTo)
+                .peek(device -> {
+                    if (count.incrementAndGet() % PROGRESS_INTERVAL == 0) {
+                        progress.advance(PROGRESS_INTERVAL);
+                        // The export holds its connection until the end, so waiting would not free it for others.
+                        progress.checkCancelled();
+                    }
+                })) {
+            switch (format) {
+                case NDJSON -> writeNdjson(devices, out);
+                case CSV -> writeCsv(devices, out);
+            }
+            progress.advance(count.get() % PROGRESS_INTERVAL);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void writeNdjson(Stream<DeviceResponseDTO> devices, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(DeviceResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            devices.forEach(device -> {
+                try {
+                    writer.writeValue(generator, device);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(Stream<DeviceResponseDTO> devices, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write("id,name,brand,createdAt\n");
+        devices.forEach(device -> {
+            try {
+                writer.write(Long.toString(device.id()));
+                writer.write(',');
+                writeCsvField(writer, device.name());
+                writer.write(',');
+                writeCsvField(writer, device.brand());
+                writer.write(',');
+                writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(device.createdAt()));
+                writer.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Writes a field as defined by RFC 4180, quoting it only when necessary.
+     */
+    private void writeCsvField(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,24 +1,91 @@
 package com.example.deviceregistryapi.service;
 
+import com.example.deviceregistryapi.cache.DeviceCache;
+import com.example.deviceregistryapi.cache.SingleFlight;
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.CursorPageDTO;
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.dto.DeviceLookupDTO;
 import com.example.deviceregistryapi.dto.DeviceRequestDTO;
 import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEvent;
+import com.example.deviceregistryapi.exception.PreconditionFailedException;
 import com.example.deviceregistryapi.exception.ResourceNotFoundException;
+import com.example.deviceregistryapi.index.DeviceIndex;
 import com.example.deviceregistryapi.model.Device;
+import com.example.deviceregistryapi.model.DeviceTombstone;
 import com.example.deviceregistryapi.repository.DeviceRepository;
-import lombok.RequiredArgsConstructor;
+import com.example.deviceregistryapi.repository.DeviceSpecifications;
+import com.example.deviceregistryapi.repository.DeviceTombstoneRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * This service handles all operations related to devices.
+ * Listings and searches run in read-only transactions: Hibernate neither keeps snapshots of the loaded devices nor
+ * flushes them, and with a read replica configured they are served by the replica. Lookups by ID are not wrapped,
+ * so that cache hits do not take a database connection.
+ * <p>
+ * Concurrent identical reads of a device or of a brand search page share a single query (see {@link SingleFlight}).
+ * Brand searches start their read-only transaction inside the shared read, so that waiting callers hold no
+ * connection.
+ * <p>
+ * With the {@link DeviceIndex} enabled and filled, lookups by ID and brand searches ordered by ID are served from
+ * memory instead.
  */
 @Service
-@RequiredArgsConstructor
+@Timed("device.service")
 public class DeviceService {
 
     private final DeviceRepository deviceRepository;
+    private final DeviceTombstoneRepository deviceTombstoneRepository;
+    private final DeviceRegistryProperties properties;
+    private final DeviceCache deviceCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceIndex deviceIndex;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean readsFromReplica;
+    private final SingleFlight<BrandPageKey, Page<DeviceResponseDTO>> brandPageReads = new SingleFlight<>("getDevicesByBrand.page");
+    private final SingleFlight<BrandSliceKey, CursorPageDTO<DeviceResponseDTO>> brandSliceReads = new SingleFlight<>("getDevicesByBrand.cursor");
+
+    public DeviceService(DeviceRepository deviceRepository, DeviceTombstoneRepository deviceTombstoneRepository,
+                         DeviceRegistryProperties properties, DeviceCache deviceCache,
+                         ApplicationEventPublisher eventPublisher, DeviceIndex deviceIndex,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.deviceRepository = deviceRepository;
+        this.deviceTombstoneRepository = deviceTombstoneRepository;
+        this.properties = properties;
+        this.deviceCache = deviceCache;
+        this.eventPublisher = eventPublisher;
+        this.deviceIndex = deviceIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.readsFromReplica = properties.replica().isConfigured();
+        brandPageReads.bindTo(meterRegistry);
+        brandSliceReads.bindTo(meterRegistry);
+    }
 
     /**
      * Adds a new device to the database.
@@ -28,21 +95,131 @@ public class DeviceService {
      */
     public DeviceResponseDTO addDevice(DeviceRequestDTO deviceRequestDTO) {
         Device saved = deviceRepository.save(new Device(deviceRequestDTO.name(), deviceRequestDTO.brand()));
-        return new DeviceResponseDTO(saved);
+        deviceCache.evictMissing(List.of(saved.getId()));
+        DeviceResponseDTO deviceResponseDTO = new DeviceResponseDTO(saved);
+        eventPublisher.publishEvent(DeviceEvent.created(deviceResponseDTO));
+        return deviceResponseDTO;
     }
 
     /**
      * Gets a device by its ID.
+     * Devices are served from the {@link DeviceIndex} when it is ready. Otherwise devices and unknown IDs are served
+     * from the {@link DeviceCache} when possible, and concurrent lookups of the same uncached ID share a single query.
      *
      * @param id the unique ID of the device (type: {@link Long})
      * @return the data of the found device (type: {@link DeviceResponseDTO})
      * @throws ResourceNotFoundException if the device is not found
      */
     public DeviceResponseDTO getDeviceById(Long id) {
-        Device device = deviceRepository
-                .findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format("Device with id %d not found", id)));
-        return new DeviceResponseDTO(device);
+        if (deviceIndex.isReady()) {
+            DeviceResponseDTO indexed = deviceIndex.get(id);
+            if (indexed == null) {
+                throw new ResourceNotFoundException("Device", id);
+            }
+            return indexed;
+        }
+        DeviceResponseDTO cached = deviceCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        if (deviceCache.isMissing(id)) {
+            throw new ResourceNotFoundException("Device", id);
+        }
+        return deviceCache.load(id, () -> loadDevice(id));
+    }
+
+    /**
+     * Reads a device that is not cached and caches the outcome, including that the device does not exist.
+     * With a replica configured the read may go to a replica that has not caught up yet, so a device it does not find
+     * is looked for again on the primary before its absence is cached.
+     */
+    private DeviceResponseDTO loadDevice(Long id) {
+        Device device = deviceRepository.findById(id)
+                .or(() -> readsFromReplica
+                        ? primaryTransaction.execute(status -> deviceRepository.findById(id))
+                        : Optional.empty())
+                .orElse(null);
+        if (device == null) {
+            deviceCache.putMissing(id);
+            throw new ResourceNotFoundException("Device", id);
+        }
+        DeviceResponseDTO deviceResponseDTO = new DeviceResponseDTO(device);
+        deviceCache.putLoaded(deviceResponseDTO);
+        return deviceResponseDTO;
+    }
+
+    /**
+     * Gets many devices by their IDs.
+     * Devices are served from the {@link DeviceIndex} when it is ready, like single lookups. Otherwise devices and
+     * unknown IDs are served from the {@link DeviceCache} when possible; the rest are read with one
+     * {@code IN} query per chunk of IDs. With a replica configured, IDs the read does not find are read again on the
+     * primary before they are cached as unknown, since the read may go to a replica that lags behind.
+     *
+     * @param ids the IDs of the devices; duplicates and {@code null}s are ignored (type: {@link List}<{@link Long}>)
+     * @return the found devices in the order of the IDs, and the IDs that were not found (type: {@link DeviceLookupDTO})
+     * @throws IllegalArgumentException if more IDs than configured are given
+     */
+    public DeviceLookupDTO getDevicesByIds(List<Long> ids) {
+        List<Long> requested = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        int maxIds = properties.lookup().maxIds();
+        if (requested.size() > maxIds) {
+            throw new IllegalArgumentException(String.format("A lookup may contain at most %d ids", maxIds));
+        }
+
+        if (deviceIndex.isReady()) {
+            List<DeviceResponseDTO> devices = new ArrayList<>(requested.size());
+            List<Long> notFound = new ArrayList<>();
+            for (Long id : requested) {
+                DeviceResponseDTO indexed = deviceIndex.get(id);
+                if (indexed != null) {
+                    devices.add(indexed);
+                } else {
+                    notFound.add(id);
+                }
+            }
+            return new DeviceLookupDTO(devices, notFound);
+        }
+
+        Map<Long, DeviceResponseDTO> found = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long id : requested) {
+            DeviceResponseDTO cached = deviceCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else if (!deviceCache.isMissing(id)) {
+                uncached.add(id);
+            }
+        }
+
+        int chunkSize = properties.lookup().chunkSize();
+        for (int from = 0; from < uncached.size(); from += chunkSize) {
+            List<Long> chunk = uncached.subList(from, Math.min(from + chunkSize, uncached.size()));
+            for (DeviceResponseDTO device : deviceRepository.findResponsesByIdIn(chunk)) {
+                deviceCache.putLoaded(device);
+                found.put(device.id(), device);
+            }
+            List<Long> missing = chunk.stream().filter(id -> !found.containsKey(id)).toList();
+            if (readsFromReplica && !missing.isEmpty()) {
+                List<DeviceResponseDTO> confirmed = primaryTransaction.execute(status -> deviceRepository.findResponsesByIdIn(missing));
+                for (DeviceResponseDTO device : confirmed) {
+                    deviceCache.putLoaded(device);
+                    found.put(device.id(), device);
+                }
+            }
+            missing.stream().filter(id -> !found.containsKey(id)).forEach(deviceCache::putMissing);
+        }
+
+        List<DeviceResponseDTO> devices = new ArrayList<>(found.size());
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : requested) {
+            DeviceResponseDTO device = found.get(id);
+            if (device != null) {
+                devices.add(device);
+            } else {
+                notFound.add(id);
+            }
+        }
+        return new DeviceLookupDTO(devices, notFound);
     }
 
     /**
@@ -51,37 +228,129 @@ public class DeviceService {
      * @param pageable the pagination details (type: {@link Pageable})
      * @return a page of devices (type: {@link Page}<{@link DeviceResponseDTO}>)
      */
+    @Transactional(readOnly = true)
     public Page<DeviceResponseDTO> listAllDevices(Pageable pageable) {
         return deviceRepository.findAll(pageable).map(DeviceResponseDTO::new);
     }
 
+    /**
+     * Lists all devices with pagination, reading only the selected columns.
+     *
+     * @param pageable the pagination details (type: {@link Pageable})
+     * @param fields   the fields to return (type: {@link Set}<{@link DeviceField}>)
+     * @return a page of devices with only the selected fields (type: {@link Page}<{@link DeviceResponseDTO}>)
+     */
+    @Transactional(readOnly = true)
+    public Page<DeviceResponseDTO> listAllDevices(Pageable pageable, Set<DeviceField> fields) {
+        if (DeviceField.isAll(fields)) {
+            return listAllDevices(pageable);
+        }
+        return deviceRepository.findProjected(null, fields, pageable);
+    }
+
+    /**
+     * Lists all devices ordered by ID using keyset pagination, without counting the total.
+     *
+     * @param after the cursor returned with the previous slice, or empty for the first slice (type: {@link String})
+     * @param size  the maximum number of devices to return (type: {@code int})
+     * @return a slice of devices with the cursor of the next slice (type: {@link CursorPageDTO}<{@link DeviceResponseDTO}>)
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DeviceResponseDTO> listAllDevices(String after, int size) {
+        int pageSize = cursorPageSize(size);
+        List<Device> devices = deviceRepository.findByIdGreaterThanOrderByIdAsc(CursorCodec.decodeId(after), Limit.of(pageSize + 1));
+        return toCursorPage(devices.stream().map(DeviceResponseDTO::new).toList(), pageSize);
+    }
+
+    /**
+     * Lists all devices ordered by ID using keyset pagination, reading only the selected columns.
+     *
+     * @param after  the cursor returned with the previous slice, or empty for the first slice (type: {@link String})
+     * @param size   the maximum number of devices to return (type: {@code int})
+     * @param fields the fields to return (type: {@link Set}<{@link DeviceField}>)
+     * @return a slice of devices with only the selected fields (type: {@link CursorPageDTO}<{@link DeviceResponseDTO}>)
+     * @throws IllegalArgumentException if the cursor is malformed or the size is not positive
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<DeviceResponseDTO> listAllDevices(String after, int size, Set<DeviceField> fields) {
+        if (DeviceField.isAll(fields)) {
+            return listAllDevices(after, size);
+        }
+        int pageSize = cursorPageSize(size);
+        return toCursorPage(deviceRepository.findProjected(DeviceSpecifications.idGreaterThan(CursorCodec.decodeId(after)),
+                fields, Sort.by("id"), Limit.of(pageSize + 1)), pageSize);
+    }
+
     /**
      * Updates the details of an existing device.
      *
      * @param id               the ID of the device to update (type: {@link Long})
      * @param deviceRequestDTO the new data for the device (type: {@link DeviceRequestDTO})
      * @return the updated device data (type: {@link DeviceResponseDTO})
+     * @throws ResourceNotFoundException if the device is not found
      */
     @Transactional
     public DeviceResponseDTO updateDevice(Long id, DeviceRequestDTO deviceRequestDTO) {
-        Device device = deviceRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format("Device with id %d not found", id)));
-
-        device.setName(deviceRequestDTO.name());
-        device.setBrand(deviceRequestDTO.brand());
+        return updateDevice(id, deviceRequestDTO, null);
+    }
 
-        Device updatedDevice = deviceRepository.save(device);
+    /**
+     * Updates the details of an existing device with a single {@code UPDATE}, without reading the device first.
+     * If the expected version is known, the response is built from the request and the cached creation time;
+     * otherwise the device is read back after the update.
+     *
+     * @param id               the ID of the device to update (type: {@link Long})
+     * @param deviceRequestDTO the new data for the device (type: {@link DeviceRequestDTO})
+     * @param expectedVersion  the version the device must still have, or {@code null} to update any version (type: {@link Long})
+     * @return the updated device data (type: {@link DeviceResponseDTO})
+     * @throws ResourceNotFoundException   if the device is not found
+     * @throws PreconditionFailedException if the device no longer has the expected version
+     */
+    @Transactional
+    public DeviceResponseDTO updateDevice(Long id, DeviceRequestDTO deviceRequestDTO, Long expectedVersion) {
+        int updated = deviceRepository.updateById(id, deviceRequestDTO.name(), deviceRequestDTO.brand(),
+                Device.normalizeBrand(deviceRequestDTO.brand()), LocalDateTime.now(), expectedVersion);
+        if (updated == 0) {
+            throw writeFailed(id, expectedVersion);
+        }
 
-        return new DeviceResponseDTO(updatedDevice);
+        DeviceResponseDTO cached = expectedVersion != null ? deviceCache.get(id) : null;
+        DeviceResponseDTO deviceResponseDTO = cached != null
+                ? new DeviceResponseDTO(id, deviceRequestDTO.name(), deviceRequestDTO.brand(), cached.createdAt(), expectedVersion + 1)
+                : readUpdated(id);
+        deviceCache.putWritten(deviceResponseDTO);
+        eventPublisher.publishEvent(DeviceEvent.updated(deviceResponseDTO));
+        return deviceResponseDTO;
     }
 
     /**
-     * Deletes a device by its ID.
+     * Deletes a device by its ID and records a tombstone for the change feed.
      *
      * @param id the ID of the device to delete (type: {@link Long})
+     * @throws ResourceNotFoundException if the device is not found
      */
+    @Transactional
     public void deleteDevice(Long id) {
-        deviceRepository.deleteById(id);
+        deleteDevice(id, null);
+    }
+
+    /**
+     * Deletes a device by its ID with a single {@code DELETE} and records a tombstone for the change feed.
+     *
+     * @param id              the ID of the device to delete (type: {@link Long})
+     * @param expectedVersion the version the device must still have, or {@code null} to delete any version (type: {@link Long})
+     * @throws ResourceNotFoundException   if the device is not found
+     * @throws PreconditionFailedException if the device no longer has the expected version
+     */
+    @Transactional
+    public void deleteDevice(Long id, Long expectedVersion) {
+        if (deviceRepository.deleteDirectlyById(id, expectedVersion) == 0) {
+            throw writeFailed(id, expectedVersion);
+        }
+        deviceTombstoneRepository.save(new DeviceTombstone(id, LocalDateTime.now()));
+        eventPublisher.publishEvent(DeviceEvent.deleted(id));
+        deviceCache.evict(id);
     }
 
     /**
@@ -92,7 +361,115 @@ public class DeviceService {
      * @return a page of devices matching the brand (type: {@link Page}<{@link DeviceResponseDTO}>)
      */
     public Page<DeviceResponseDTO> getDevicesByBrand(String brand, Pageable pageable) {
-        return deviceRepository.findAllByBrand(brand, pageable).map(DeviceResponseDTO::new);
+        return getDevicesByBrand(brand, BrandMatch.EXACT, pageable);
+    }
+
+    /**
+     * Searches for devices by one or more comma separated brands. Concurrent identical searches share a single query.
+     *
+     * @param brand    the brand names or prefix to search for (type: {@link String})
+     * @param match    how the brand is matched (type: {@link BrandMatch})
+     * @param pageable the pagination details (type: {@link Pageable})
+     * @return a page of devices matching the brand (type: {@link Page}<{@link DeviceResponseDTO}>)
+     * @throws IllegalArgumentException if no brand is given, or several prefixes are given
+     */
+    public Page<DeviceResponseDTO> getDevicesByBrand(String brand, BrandMatch match, Pageable pageable) {
+        List<String> brands = parseBrands(brand, match);
+        if (deviceIndex.isReady() && DeviceIndex.supports(pageable)) {
+            return deviceIndex.findByBrand(brandSelector(brands, match), pageable);
+        }
+        return brandPageReads.execute(new BrandPageKey(brands, match, pageable), () -> readOnlyTransaction.execute(status -> {
+            Page<Device> devices = switch (match) {
+                case EXACT -> brands.size() == 1
+                        ? deviceRepository.findAllByBrand(brands.get(0), pageable)
+                        : deviceRepository.findAllByBrandIn(brands, pageable);
+                case IGNORE_CASE -> deviceRepository.findAllByBrandNormalizedIn(brands, pageable);
+                case PREFIX -> deviceRepository.findAllByBrandNormalizedStartingWith(brands.get(0), pageable);
+            };
+            return devices.map(DeviceResponseDTO::new);
+        }));
+    }
+
+    /**
+     * Searches for devices by one or more comma separated brands, reading only the selected columns.
+     *
+     * @param brand    the brand names or prefix to search for (type: {@link String})
+     * @param match    how the brand is matched (type: {@link BrandMatch})
+     * @param pageable the pagination details (type: {@link Pageable})
+     * @param fields   the fields to return (type: {@link Set}<{@link DeviceField}>)
+     * @return a page of devices matching the brand, with only the selected fields (type: {@link Page}<{@link DeviceResponseDTO}>)
+     * @throws IllegalArgumentException if no brand is given, or several prefixes are given
+     */
+    public Page<DeviceResponseDTO> getDevicesByBrand(String brand, BrandMatch match, Pageable pageable, Set<DeviceField> fields) {
+        if (DeviceField.isAll(fields)) {
+            return getDevicesByBrand(brand, match, pageable);
+        }
+        if (deviceIndex.isReady() && DeviceIndex.supports(pageable)) {
+            return getDevicesByBrand(brand, match, pageable).map(device -> device.withOnly(fields));
+        }
+        return deviceRepository.findProjected(brandSpecification(brand, match), fields, pageable);
+    }
+
+    /**
+     * Searches for devices by one or more comma separated brands ordered by ID using keyset pagination,
+     * without counting the total. Concurrent identical searches share a single query.
+     *
+     * @param brand the brand names or prefix to search for (type: {@link String})
+     * @param match how the brand is matched (type: {@link BrandMatch})
+     * @param after the cursor returned with the previous slice, or empty for the first slice (type: {@link String})
+     * @param size  the maximum number of devices to return (type: {@code int})
+     * @return a slice of devices with the cursor of the next slice (type: {@link CursorPageDTO}<{@link DeviceResponseDTO}>)
+     * @throws IllegalArgumentException if the cursor is malformed, the size is not positive, no brand is given,
+     *                                  or several prefixes are given
+     */
+    public CursorPageDTO<DeviceResponseDTO> getDevicesByBrand(String brand, BrandMatch match, String after, int size) {
+        List<String> brands = parseBrands(brand, match);
+        int pageSize = cursorPageSize(size);
+        long afterId = CursorCodec.decodeId(after);
+        if (deviceIndex.isReady()) {
+            return toCursorPage(deviceIndex.findByBrand(brandSelector(brands, match), afterId, pageSize + 1), pageSize);
+        }
+        Limit limit = Limit.of(pageSize + 1);
+        return brandSliceReads.execute(new BrandSliceKey(brands, match, afterId, pageSize), () -> readOnlyTransaction.execute(status -> {
+            List<Device> devices = switch (match) {
+                case EXACT -> brands.size() == 1
+                        ? deviceRepository.findByBrandAndIdGreaterThanOrderByIdAsc(brands.get(0), afterId, limit)
+                        : deviceRepository.findByBrandInAndIdGreaterThanOrderByIdAsc(brands, afterId, limit);
+                case IGNORE_CASE -> deviceRepository.findByBrandNormalizedInAndIdGreaterThanOrderByIdAsc(brands, afterId, limit);
+                case PREFIX -> deviceRepository.findByBrandNormalizedStartingWithAndIdGreaterThanOrderByIdAsc(brands.get(0), afterId, limit);
+            };
+            return toCursorPage(devices.stream().map(DeviceResponseDTO::new).toList(), pageSize);
+        }));
+    }
+
+    /**
+     * Searches for devices by one or more comma separated brands ordered by ID using keyset pagination,
+     * reading only the selected columns.
+     *
+     * @param brand  the brand names or prefix to search for (type: {@link String})
+     * @param match  how the brand is matched (type: {@link BrandMatch})
+     * @param after  the cursor returned with the previous slice, or empty for the first slice (type: {@link String})
+     * @param size   the maximum number of devices to return (type: {@code int})
+     * @param fields the fields to return (type: {@link Set}<{@link DeviceField}>)
+     * @return a slice of devices with only the selected fields (type: {@link CursorPageDTO}<{@link DeviceResponseDTO}>)
+     * @throws IllegalArgumentException if the cursor is malformed, the size is not positive, no brand is given,
+     *                                  or several prefixes are given
+     */
+    public CursorPageDTO<DeviceResponseDTO> getDevicesByBrand(String brand, BrandMatch match, String after, int size,
+                                                              Set<DeviceField> fields) {
+        if (DeviceField.isAll(fields)) {
+            return getDevicesByBrand(brand, match, after, size);
+        }
+        if (deviceIndex.isReady()) {
+            CursorPageDTO<DeviceResponseDTO> page = getDevicesByBrand(brand, match, after, size);
+            return new CursorPageDTO<>(page.content().stream().map(device -> device.withOnly(fields)).toList(),
+                    page.size(), page.nextCursor());
+        }
+        Specification<Device> specification = brandSpecification(brand, match);
+        int pageSize = cursorPageSize(size);
+        return toCursorPage(deviceRepository.findProjected(
+                specification.and(DeviceSpecifications.idGreaterThan(CursorCodec.decodeId(after))),
+                fields, Sort.by("id"), Limit.of(pageSize + 1)), pageSize);
     }
 
     /**
@@ -101,21 +478,134 @@ public class DeviceService {
      * @param id               the ID of the device to update (type: {@link Long})
      * @param deviceRequestDTO the partial data to update (type: {@link DeviceRequestDTO})
      * @return the updated device data (type: {@link DeviceResponseDTO})
+     * @throws ResourceNotFoundException if the device is not found
      */
     @Transactional
     public DeviceResponseDTO partialUpdateDevice(Long id, DeviceRequestDTO deviceRequestDTO) {
-        Device device = deviceRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(String.format("Device with id %d not found", id)));
+        return partialUpdateDevice(id, deviceRequestDTO, null);
+    }
+
+    /**
+     * Partially updates a device's details with a single {@code UPDATE}. Blank fields keep their current value.
+     * The device is read back after the update unless the expected version is known, both fields were given and
+     * the device is cached.
+     *
+     * @param id               the ID of the device to update (type: {@link Long})
+     * @param deviceRequestDTO the partial data to update (type: {@link DeviceRequestDTO})
+     * @param expectedVersion  the version the device must still have, or {@code null} to update any version (type: {@link Long})
+     * @return the updated device data (type: {@link DeviceResponseDTO})
+     * @throws ResourceNotFoundException   if the device is not found
+     * @throws PreconditionFailedException if the device no longer has the expected version
+     */
+    @Transactional
+    public DeviceResponseDTO partialUpdateDevice(Long id, DeviceRequestDTO deviceRequestDTO, Long expectedVersion) {
+        String name = nullIfBlank(deviceRequestDTO.name());
+        String brand = nullIfBlank(deviceRequestDTO.brand());
+        int updated = deviceRepository.patchById(id, name, brand, Device.normalizeBrand(brand), LocalDateTime.now(), expectedVersion);
+        if (updated == 0) {
+            throw writeFailed(id, expectedVersion);
+        }
 
-        if (deviceRequestDTO.name() != null && !deviceRequestDTO.name().isBlank()) {
-            device.setName(deviceRequestDTO.name());
+        // Only the creation time is taken from the cache: it never changes, while a cached name or brand may be
+        // older than a concurrent update the row now holds.
+        DeviceResponseDTO cached = expectedVersion != null && name != null && brand != null ? deviceCache.get(id) : null;
+        DeviceResponseDTO deviceResponseDTO = cached != null
+                ? new DeviceResponseDTO(id, name, brand, cached.createdAt(), expectedVersion + 1)
+                : readUpdated(id);
+        deviceCache.putWritten(deviceResponseDTO);
+        eventPublisher.publishEvent(DeviceEvent.updated(deviceResponseDTO));
+        return deviceResponseDTO;
+    }
+
+    /**
+     * Reads a device that was just updated in this transaction, for when it is not cached.
+     */
+    private DeviceResponseDTO readUpdated(Long id) {
+        return deviceRepository.findResponseById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Device", id));
+    }
+
+    /**
+     * Tells why a conditional write affected no row: the device is missing, or it has another version.
+     */
+    private RuntimeException writeFailed(Long id, Long expectedVersion) {
+        if (expectedVersion != null && deviceRepository.existsById(id)) {
+            return new PreconditionFailedException(String.format("Device with id %d has been modified", id));
+        }
+        return new ResourceNotFoundException("Device", id);
+    }
+
+    private static String nullIfBlank(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Splits a comma separated brand parameter, normalizing the brands unless they are matched exactly.
+     */
+    private List<String> parseBrands(String brand, BrandMatch match) {
+        List<String> brands = Arrays.stream(brand.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(value -> match == BrandMatch.EXACT ? value : Device.normalizeBrand(value))
+                .distinct()
+                .toList();
+        if (brands.isEmpty()) {
+            throw new IllegalArgumentException("At least one brand is required");
         }
-        if (deviceRequestDTO.brand() != null && !deviceRequestDTO.brand().isBlank()) {
-            device.setBrand(deviceRequestDTO.brand());
+        if (match == BrandMatch.PREFIX && brands.size() > 1) {
+            throw new IllegalArgumentException("Only a single brand prefix is supported");
         }
+        return brands;
+    }
 
-        Device updatedDevice = deviceRepository.save(device);
+    /**
+     * Builds the condition of a brand search, matching the derived query used for the same search.
+     */
+    private Specification<Device> brandSpecification(String brand, BrandMatch match) {
+        List<String> brands = parseBrands(brand, match);
+        return switch (match) {
+            case EXACT -> DeviceSpecifications.brandIn(brands);
+            case IGNORE_CASE -> DeviceSpecifications.brandNormalizedIn(brands);
+            case PREFIX -> DeviceSpecifications.brandNormalizedStartingWith(brands.get(0));
+        };
+    }
+
+    /**
+     * Selects the brands of a brand search in the {@link DeviceIndex}, matching them like the derived queries do.
+     */
+    private static DeviceIndex.BrandSelector brandSelector(List<String> brands, BrandMatch match) {
+        return switch (match) {
+            case EXACT -> (name, normalized) -> brands.contains(name);
+            case IGNORE_CASE -> (name, normalized) -> brands.contains(normalized);
+            case PREFIX -> (name, normalized) -> normalized.startsWith(brands.get(0));
+        };
+    }
 
-        return new DeviceResponseDTO(updatedDevice);
+    private int cursorPageSize(int size) {
+        return CursorCodec.pageSize(size, properties.pagination().maxPageSize());
+    }
+
+    /**
+     * Builds a slice from a result that was queried with one extra row, which tells whether a next slice exists.
+     */
+    private CursorPageDTO<DeviceResponseDTO> toCursorPage(List<DeviceResponseDTO> devices, int pageSize) {
+        boolean hasNext = devices.size() > pageSize;
+        List<DeviceResponseDTO> content = devices.stream()
+                .limit(pageSize)
+                .toList();
+        String nextCursor = hasNext ? CursorCodec.encodeId(content.get(content.size() - 1).id()) : null;
+        return new CursorPageDTO<>(content, content.size(), nextCursor);
+    }
+
+    /**
+     * Identifies a page of a brand search; the brands are parsed, so that equivalent parameters share a read.
+     */
+    private record BrandPageKey(List<String> brands, BrandMatch match, Pageable pageable) {
+    }
+
+    /**
+     * Identifies a slice of a brand search with keyset pagination.
+     */
+    private record BrandSliceKey(List<String> brands, BrandMatch match, long afterId, int pageSize) {
     }
 }
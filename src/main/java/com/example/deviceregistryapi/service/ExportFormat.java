@@ -0,0 +1,45 @@
+package com.example.deviceregistryapi.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The formats in which the device registry can be exported.
+ */
+public enum ExportFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    ExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Resolves a format from its name, ignoring case.
+     *
+     * @param name the name of the format, e.g. {@code ndjson} (type: {@link String})
+     * @return the matching format (type: {@link ExportFormat})
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static ExportFormat fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equals(name.toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unsupported export format: %s", name)));
+    }
+}
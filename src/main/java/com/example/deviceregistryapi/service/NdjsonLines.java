@@ -0,0 +1,112 @@
+package com.example.deviceregistryapi.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a newline-delimited stream into lines, holding at most one line of a bounded length in memory.
+ * <p>
+ * The bytes of a line longer than the limit are skipped as they are read, so a single huge line cannot exhaust the
+ * heap; the caller only learns that the line was {@link #isTooLong() too long}.
+ */
+final class NdjsonLines {
+
+    private final InputStream in;
+    private final int maxLineBytes;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+    private byte[] line = new byte[256];
+    private int length;
+    private boolean tooLong;
+
+    /**
+     * @param in           the stream (type: {@link InputStream})
+     * @param maxLineBytes the maximum length of a line in bytes, without its line break (type: {@code int})
+     */
+    NdjsonLines(InputStream in, int maxLineBytes) {
+        this.in = in;
+        this.maxLineBytes = maxLineBytes;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return {@code false} at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    boolean next() throws IOException {
+        length = 0;
+        tooLong = false;
+        int b = read();
+        if (b < 0) {
+            return false;
+        }
+        while (b >= 0 && b != '\n') {
+            // One byte beyond the limit is kept, in case it is the '\r' of a "\r\n" line break.
+            if (length <= maxLineBytes) {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, Math.min(line.length * 2, maxLineBytes + 1));
+                }
+                line[length++] = (byte) b;
+            } else {
+                tooLong = true;
+            }
+            b = read();
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        tooLong |= length > maxLineBytes;
+        return true;
+    }
+
+    /**
+     * @return whether the current line exceeds the maximum length; its bytes are not available
+     */
+    boolean isTooLong() {
+        return tooLong;
+    }
+
+    /**
+     * @return whether the current line contains nothing but whitespace
+     */
+    boolean isBlank() {
+        if (tooLong) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the buffer holding the current line from offset 0; only valid until the next call of {@link #next()}
+     */
+    byte[] bytes() {
+        return line;
+    }
+
+    /**
+     * @return the length of the current line in bytes
+     */
+    int length() {
+        return length;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xff;
+    }
+}
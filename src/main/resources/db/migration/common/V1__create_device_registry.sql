@@ -0,0 +1,31 @@
+-- Schema of the device registry. Portable between PostgreSQL and H2 (used for tests and local runs).
+
+create sequence device_seq start with 1 increment by 50;
+
+create table device (
+    id               bigint       not null,
+    name             varchar(255) not null,
+    brand            varchar(255) not null,
+    brand_normalized varchar(255) not null,
+    created_at       timestamp(6) not null,
+    modified_at      timestamp(6) not null,
+    version          bigint       not null,
+    constraint pk_device primary key (id)
+);
+
+-- Exact brand search and walking a brand in ID order (search, cursor search, bulk operations by brand).
+create index idx_device_brand_id on device (brand, id);
+-- Case-insensitive and prefix brand search.
+create index idx_device_brand_normalized_id on device (brand_normalized, id);
+create index idx_device_name on device (name);
+-- Change feed, ordered by (modified_at, id).
+create index idx_device_modified_at_id on device (modified_at, id);
+
+create table device_tombstone (
+    device_id  bigint       not null,
+    deleted_at timestamp(6) not null,
+    constraint pk_device_tombstone primary key (device_id)
+);
+
+-- Deletions in the change feed, and purging expired tombstones.
+create index idx_device_tombstone_deleted_at_device_id on device_tombstone (deleted_at, device_id);
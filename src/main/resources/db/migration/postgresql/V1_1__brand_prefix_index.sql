@@ -0,0 +1,3 @@
+-- PostgreSQL only uses a b-tree index for LIKE 'prefix%' if the index compares characters bytewise, which the
+-- default index on brand_normalized does not under a non-C collation. This index serves prefix brand search.
+create index idx_device_brand_normalized_pattern on device (brand_normalized varchar_pattern_ops, id);
@@ -0,0 +1,90 @@
+package com.example.deviceregistryapi.cache;
+
+import com.example.deviceregistryapi.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test");
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final AtomicInteger reads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldRunSequentialReadsSeparately() {
+        assertEquals(1, singleFlight.execute("a", reads::incrementAndGet));
+        assertEquals(2, singleFlight.execute("a", reads::incrementAndGet));
+
+        assertEquals(2, singleFlight.getExecuted());
+        assertEquals(0, singleFlight.getCollapsed());
+    }
+
+    @Test
+    void execute_shouldShareExceptionOfReadInFlight() throws Exception {
+        ResourceNotFoundException notFound = new ResourceNotFoundException("Device with id 1 not found");
+        Future<Integer> leader = executor.submit(() -> singleFlight.execute("a", blockingRead(() -> {
+            throw notFound;
+        })));
+        awaitTrue(() -> reads.get() == 1);
+        Future<Integer> follower = executor.submit(() -> singleFlight.execute("a", reads::incrementAndGet));
+        awaitTrue(() -> singleFlight.getCollapsed() == 1);
+        release.countDown();
+
+        for (Future<Integer> future : List.of(leader, follower)) {
+            Exception ex = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertSame(notFound, ex.getCause());
+        }
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    void forget_shouldLetLaterCallersStartNewRead() throws Exception {
+        Future<Integer> leader = executor.submit(() -> singleFlight.execute("a", blockingRead(() -> 1)));
+        awaitTrue(() -> reads.get() == 1);
+
+        singleFlight.forget("a");
+
+        assertEquals(2, singleFlight.execute("a", () -> reads.incrementAndGet()));
+        release.countDown();
+        assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+        assertEquals(0, singleFlight.getCollapsed());
+    }
+
+    private Supplier<Integer> blockingRead(Supplier<Integer> result) {
+        return () -> {
+            reads.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return result.get();
+        };
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+}
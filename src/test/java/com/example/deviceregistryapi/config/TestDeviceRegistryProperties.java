@@ -0,0 +1,28 @@
+package com.example.deviceregistryapi.config;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+/**
+ * Creates {@link DeviceRegistryProperties} for unit tests, using the declared defaults for anything not overridden.
+ */
+public final class TestDeviceRegistryProperties {
+
+    private TestDeviceRegistryProperties() {
+    }
+
+    public static DeviceRegistryProperties defaults() {
+        return with(Map.of());
+    }
+
+    /**
+     * @param overrides property values keyed by their name relative to {@code device-registry}, e.g. {@code batch.chunk-size}
+     */
+    public static DeviceRegistryProperties with(Map<String, String> overrides) {
+        MapConfigurationPropertySource source = new MapConfigurationPropertySource();
+        overrides.forEach((name, value) -> source.put("device-registry." + name, value));
+        return new Binder(source).bindOrCreate("device-registry", DeviceRegistryProperties.class);
+    }
+}
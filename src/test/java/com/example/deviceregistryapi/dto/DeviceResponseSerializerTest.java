@@ -0,0 +1,57 @@
+package com.example.deviceregistryapi.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceResponseSerializerTest {
+
+    private final ObjectMapper defaultObjectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .serializerByType(DeviceResponseDTO.class, new DeviceResponseSerializer())
+            .build();
+
+    @Test
+    void shouldWriteLikeDefaultSerializer() throws Exception {
+        List<LocalDateTime> times = List.of(
+                LocalDateTime.of(2024, 1, 2, 3, 4),
+                LocalDateTime.of(2024, 12, 31, 23, 59, 59, 120_000_000),
+                LocalDateTime.of(2024, 6, 15, 12, 0, 0, 123_456_789),
+                LocalDateTime.of(2024, 6, 15, 12, 0, 0, 1),
+                LocalDateTime.of(99, 1, 1, 0, 0),
+                LocalDateTime.of(12345, 1, 1, 0, 0),
+                LocalDateTime.of(-1, 1, 1, 0, 0));
+        for (LocalDateTime createdAt : times) {
+            DeviceResponseDTO device = new DeviceResponseDTO(1L, "iPhone \"16\" é", "Apple", createdAt, 3L);
+            assertEquals(defaultObjectMapper.writeValueAsString(device), objectMapper.writeValueAsString(device));
+        }
+    }
+
+    @Test
+    void shouldLeaveOutFieldsThatWereNotSelected() throws Exception {
+        DeviceResponseDTO device = new DeviceResponseDTO(1L, "iPhone 16", "Apple", LocalDateTime.now(), 3L)
+                .withOnly(Set.of(DeviceField.ID, DeviceField.BRAND));
+
+        assertEquals("{\"id\":1,\"brand\":\"Apple\"}", objectMapper.writeValueAsString(device));
+    }
+
+    @Test
+    void shouldFormatRandomTimesLikeDefaultSerializer() throws Exception {
+        Random random = new Random(42);
+        List<DeviceResponseDTO> devices = random.longs(1000, 0, 253_402_300_799L)
+                .mapToObj(seconds -> LocalDateTime.ofEpochSecond(seconds, random.nextInt(1_000_000_000), ZoneOffset.UTC))
+                .map(createdAt -> new DeviceResponseDTO(1L, "Device", "Brand", createdAt))
+                .toList();
+
+        // One call writes all devices through the same buffer.
+        assertEquals(defaultObjectMapper.writeValueAsString(devices), objectMapper.writeValueAsString(devices));
+    }
+}
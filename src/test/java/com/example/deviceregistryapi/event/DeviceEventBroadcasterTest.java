@@ -0,0 +1,139 @@
+package com.example.deviceregistryapi.event;
+
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceEventBroadcasterTest {
+
+    private static final int SUBSCRIBER_BUFFER_SIZE = 16;
+
+    private DeviceEventBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new DeviceEventBroadcaster(new ObjectMapper().findAndRegisterModules(),
+                TestDeviceRegistryProperties.with(Map.of(
+                        "events.subscriber-buffer-size", Integer.toString(SUBSCRIBER_BUFFER_SIZE),
+                        "events.replay-buffer-size", "32")),
+                false);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void onDeviceEvent_shouldKeepBuffersBoundedForHundredsOfSlowSubscribers() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        List<RecordingEmitter> emitters = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            RecordingEmitter emitter = new RecordingEmitter(gate);
+            broadcaster.register(emitter, null);
+            emitters.add(emitter);
+        }
+
+        for (long id = 1; id <= 1000; id++) {
+            broadcaster.onDeviceEvent(DeviceEvent.deleted(id));
+        }
+
+        // Every subscriber is blocked, yet none buffers more than its limit.
+        for (RecordingEmitter emitter : emitters) {
+            assertTrue(broadcaster.bufferedEventCount(emitter) <= SUBSCRIBER_BUFFER_SIZE);
+        }
+        assertTrue(broadcaster.getDroppedEventCount() > 0);
+
+        gate.countDown();
+
+        awaitTrue(() -> emitters.stream().allMatch(emitter -> emitter.lastEventId() == 1000));
+        assertEquals(500, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    void register_shouldReplayMissedEvents_whenLastEventIdIsBuffered() throws InterruptedException {
+        for (long id = 1; id <= 5; id++) {
+            broadcaster.onDeviceEvent(DeviceEvent.deleted(id));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        broadcaster.register(emitter, 3L);
+
+        awaitTrue(() -> emitter.events.size() == 2);
+        assertEquals(List.of(4L, 5L), emitter.events.stream().map(RecordingEmitter::idOf).toList());
+    }
+
+    @Test
+    void register_shouldSendReset_whenMissedEventsAreNoLongerBuffered() throws InterruptedException {
+        for (long id = 1; id <= 40; id++) {
+            broadcaster.onDeviceEvent(DeviceEvent.deleted(id));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        broadcaster.register(emitter, 2L);
+
+        awaitTrue(() -> emitter.events.size() == 1);
+        assertTrue(emitter.events.get(0).contains("event:reset"));
+        assertEquals(40L, emitter.lastEventId());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Records the events sent to it; sending blocks until the gate opens, to simulate a slow client.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final CountDownLatch gate;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+            }
+            events.add(builder.build().stream()
+                    .map(data -> data.getData().toString())
+                    .collect(Collectors.joining()));
+        }
+
+        long lastEventId() {
+            return events.isEmpty() ? 0 : idOf(events.get(events.size() - 1));
+        }
+
+        static long idOf(String event) {
+            int start = event.indexOf("id:") + 3;
+            return Long.parseLong(event.substring(start, event.indexOf('\n', start)));
+        }
+    }
+}
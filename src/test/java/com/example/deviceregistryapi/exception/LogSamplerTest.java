@@ -0,0 +1,52 @@
+package com.example.deviceregistryapi.exception;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplerTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final LogSampler logSampler = new LogSampler(Duration.ofSeconds(10));
+
+    @Test
+    void sample_shouldLetThroughOneStatementPerIntervalAndCountTheRest() {
+        long start = 123 * SECOND;
+
+        assertEquals(0, logSampler.sample("a", start));
+        assertEquals(-1, logSampler.sample("a", start + SECOND));
+        assertEquals(-1, logSampler.sample("a", start + 9 * SECOND));
+
+        assertEquals(2, logSampler.sample("a", start + 10 * SECOND));
+        assertEquals(-1, logSampler.sample("a", start + 11 * SECOND));
+        assertEquals(1, logSampler.sample("a", start + 60 * SECOND));
+    }
+
+    @Test
+    void sample_shouldKeepKeysApart() {
+        assertEquals(0, logSampler.sample(ResourceNotFoundException.class, 0));
+        assertEquals(-1, logSampler.sample(ResourceNotFoundException.class, SECOND));
+
+        assertEquals(0, logSampler.sample(PreconditionFailedException.class, SECOND));
+    }
+
+    @Test
+    void sample_shouldLetEveryStatementThroughWithoutInterval() {
+        LogSampler everyStatement = new LogSampler(Duration.ZERO);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, everyStatement.sample("a", i));
+        }
+    }
+
+    @Test
+    void resourceNotFoundException_shouldHaveNoStackTrace() {
+        ResourceNotFoundException ex = new ResourceNotFoundException("Device", 42L);
+
+        assertEquals("Device with id 42 not found", ex.getMessage());
+        assertEquals(0, ex.getStackTrace().length);
+    }
+}
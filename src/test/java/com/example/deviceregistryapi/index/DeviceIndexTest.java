@@ -0,0 +1,257 @@
+package com.example.deviceregistryapi.index;
+
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEvent;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceIndexTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    private DeviceIndex deviceIndex;
+
+    @BeforeEach
+    void setUp() {
+        deviceIndex = new DeviceIndex(deviceRepository, TestDeviceRegistryProperties.with(Map.of(
+                "index.enabled", "true",
+                "index.initial-capacity", "2",
+                "index.warm-up-chunk-size", "2")));
+    }
+
+    @Test
+    void get_shouldReturnStoredDeviceWithAllFields() {
+        DeviceResponseDTO device = new DeviceResponseDTO(7L, "Pixel 9 – Pro", "Google", CREATED_AT, 3L);
+
+        deviceIndex.put(device);
+
+        assertEquals(device, deviceIndex.get(7L));
+        assertNull(deviceIndex.get(8L));
+    }
+
+    @Test
+    void onDeviceEvent_shouldApplyUpdatesAndDeletions() {
+        deviceIndex.onDeviceEvent(DeviceEvent.created(device(1L, "iPhone", "Apple", 0)));
+        deviceIndex.onDeviceEvent(DeviceEvent.created(device(2L, "Galaxy", "Samsung", 0)));
+
+        deviceIndex.onDeviceEvent(DeviceEvent.updated(device(1L, "iPhone 16", "apple", 1)));
+        deviceIndex.onDeviceEvent(DeviceEvent.deleted(2L));
+
+        assertEquals("iPhone 16", deviceIndex.get(1L).name());
+        assertNull(deviceIndex.get(2L));
+        assertEquals(1, deviceIndex.size());
+        assertEquals(0, deviceIndex.findByBrand(exact("Apple"), PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, deviceIndex.findByBrand(exact("apple"), PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void put_shouldKeepNewerVersion() {
+        deviceIndex.put(device(1L, "New", "Apple", 2));
+        deviceIndex.put(device(1L, "Old", "Apple", 1));
+
+        assertEquals("New", deviceIndex.get(1L).name());
+    }
+
+    @Test
+    void findByBrand_shouldMergeSelectedBrandsInIdOrder() {
+        for (long id = 1; id <= 9; id++) {
+            deviceIndex.put(device(id, "Device " + id, id % 3 == 0 ? "Nokia" : id % 2 == 0 ? "Apple" : "Samsung", 0));
+        }
+
+        Page<DeviceResponseDTO> page = deviceIndex.findByBrand(
+                (brand, normalized) -> normalized.equals("apple") || normalized.equals("samsung"), PageRequest.of(1, 2));
+
+        assertEquals(6, page.getTotalElements());
+        assertEquals(List.of(4L, 5L), page.getContent().stream().map(DeviceResponseDTO::id).toList());
+        assertEquals(List.of(5L, 7L, 8L), deviceIndex.findByBrand(
+                (brand, normalized) -> !brand.equals("Nokia"), 4L, 3).stream().map(DeviceResponseDTO::id).toList());
+        assertTrue(DeviceIndex.supports(PageRequest.of(0, 2, Sort.by("id"))));
+        assertFalse(DeviceIndex.supports(PageRequest.of(0, 2, Sort.by("name"))));
+    }
+
+    @Test
+    void warmUp_shouldLoadRegistryAndSkipDevicesDeletedMeanwhile() {
+        when(deviceRepository.findResponsesAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(device(1L, "A", "Apple", 0), device(2L, "B", "Apple", 0)));
+        when(deviceRepository.findResponsesAfter(eq(2L), any(Limit.class))).thenAnswer(invocation -> {
+            // Deleted after its row was read, before the warm-up stored it.
+            deviceIndex.onDeviceEvent(DeviceEvent.deleted(3L));
+            return List.of(device(3L, "C", "Apple", 0));
+        });
+
+        assertFalse(deviceIndex.isReady());
+        deviceIndex.warmUp();
+
+        assertTrue(deviceIndex.isReady());
+        assertEquals(2, deviceIndex.size());
+        assertNull(deviceIndex.get(3L));
+    }
+
+    @Test
+    void put_shouldReclaimNamesOfOverwrittenDevices() {
+        String name = "x".repeat(1000);
+        for (int i = 0; i < 5000; i++) {
+            deviceIndex.put(device(1L + i % 10, name + i, "Apple", i));
+        }
+
+        assertEquals(10, deviceIndex.size());
+        assertEquals(name + 4999, deviceIndex.get(10L).name());
+        assertEquals(name + 4990, deviceIndex.get(1L).name());
+        assertTrue(deviceIndex.bytes() < 4_000_000, "bytes: " + deviceIndex.bytes());
+    }
+
+    @Test
+    void warmUp_shouldAbandonIndexWhenNamesExceedBudget() {
+        deviceIndex = new DeviceIndex(deviceRepository, TestDeviceRegistryProperties.with(Map.of(
+                "index.enabled", "true",
+                "index.initial-capacity", "2",
+                "index.warm-up-chunk-size", "2",
+                "index.max-names-size", "64B")));
+        String name = "x".repeat(30);
+        when(deviceRepository.findResponsesAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(device(1L, name, "Apple", 0), device(2L, name, "Apple", 0)));
+        when(deviceRepository.findResponsesAfter(eq(2L), any(Limit.class)))
+                .thenReturn(List.of(device(3L, name, "Apple", 0)));
+
+        deviceIndex.warmUp();
+
+        assertFalse(deviceIndex.isReady());
+        deviceIndex.onDeviceEvent(DeviceEvent.created(device(4L, "D", "Apple", 0)));
+        assertNull(deviceIndex.get(4L));
+    }
+
+    @Test
+    void put_shouldReuseSlotsOfRemovedDevicesWithinBudget() {
+        deviceIndex = new DeviceIndex(deviceRepository, TestDeviceRegistryProperties.with(Map.of(
+                "index.enabled", "true",
+                "index.initial-capacity", "2",
+                "index.max-names-size", "64B")));
+        String name = "x".repeat(30);
+        for (long id = 1; id <= 10; id++) {
+            deviceIndex.put(device(id, name + id % 10, "Apple", 0));
+            deviceIndex.remove(id - 1);
+        }
+
+        assertEquals(1, deviceIndex.size());
+        assertEquals(name + 0, deviceIndex.get(10L).name());
+        deviceIndex.put(device(11L, name + 1, "Apple", 0));
+        assertEquals(name + 1, deviceIndex.get(11L).name());
+    }
+
+    @Test
+    void findByBrand_shouldSkipRemovedDevices() {
+        for (long id = 1; id <= 100; id++) {
+            deviceIndex.put(device(id, "Device " + id, "Apple", 0));
+        }
+        for (long id = 1; id <= 100; id++) {
+            if (id % 10 != 0 && id != 45) {
+                deviceIndex.onDeviceEvent(DeviceEvent.deleted(id));
+            }
+            if (id == 40) {
+                assertEquals(List.of(10L, 20L, 30L), deviceIndex.findByBrand(exact("Apple"), 5L, 3).stream()
+                        .map(DeviceResponseDTO::id).toList());
+            }
+        }
+
+        Page<DeviceResponseDTO> page = deviceIndex.findByBrand(exact("Apple"), PageRequest.of(1, 3));
+
+        assertEquals(11, page.getTotalElements());
+        assertEquals(List.of(40L, 45L, 50L), page.getContent().stream().map(DeviceResponseDTO::id).toList());
+        assertEquals(List.of(45L, 50L), deviceIndex.findByBrand(exact("Apple"), 40L, 2).stream()
+                .map(DeviceResponseDTO::id).toList());
+    }
+
+    @Test
+    void postingList_shouldBehaveLikeSortedSet() {
+        PostingList list = new PostingList();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long id = 1 + random.nextInt(i < 50_000 ? 5000 : 50);
+            if (random.nextInt(3) > 0) {
+                list.add(id);
+                expected.add(id);
+            } else {
+                list.remove(id);
+                expected.remove(id);
+            }
+            if (i % 1000 == 0) {
+                List<Long> ids = new ArrayList<>();
+                for (int position = list.nextLive(0); position < list.end(); position = list.nextLive(position + 1)) {
+                    ids.add(list.get(position));
+                }
+                assertEquals(List.copyOf(expected), ids);
+                int after = list.indexAfter(id);
+                assertEquals(expected.higher(id), after < list.end() ? list.get(after) : null);
+            }
+        }
+        assertEquals(expected.size(), list.size());
+    }
+
+    @Test
+    void longIntHashMap_shouldNeverFindKeyZero() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(1L, 7);
+        map.put(2L, 8);
+
+        assertEquals(7, map.remove(1L));
+        assertEquals(-1, map.get(0L));
+        assertEquals(-1, map.remove(0L));
+        assertEquals(8, map.get(2L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void longIntHashMap_shouldBehaveLikeHashMap() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long key = 1 + random.nextInt(5000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals(expected.containsKey(key) ? expected.remove(key) : -1, map.remove(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 5000; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key));
+        }
+    }
+
+    private static DeviceIndex.BrandSelector exact(String brand) {
+        return (name, normalized) -> name.equals(brand);
+    }
+
+    private static DeviceResponseDTO device(long id, String name, String brand, long version) {
+        return new DeviceResponseDTO(id, name, brand, CREATED_AT, version);
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.deviceregistryapi.integration;
 
+import com.example.deviceregistryapi.cache.DeviceCache;
+import com.example.deviceregistryapi.controller.PageFormatAdvice;
+import com.example.deviceregistryapi.dto.BatchResultDTO;
 import com.example.deviceregistryapi.dto.DeviceRequestDTO;
 import com.example.deviceregistryapi.model.Device;
 import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.example.deviceregistryapi.repository.DeviceTombstoneRepository;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -13,13 +22,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {
+        "device-registry.changes.safety-lag=0s",
+        "device-registry.batch.chunk-size=2",
+        "device-registry.batch.max-items=5"
+})
 @AutoConfigureMockMvc
 public class DeviceControllerIntegrationTest {
 
@@ -29,12 +52,25 @@ public class DeviceControllerIntegrationTest {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private DeviceTombstoneRepository deviceTombstoneRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    @Autowired
+    private DeviceCache deviceCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         deviceRepository.deleteAll();
+        deviceTombstoneRepository.deleteAll();
+        deviceCache.clear();
     }
 
     @Test
@@ -74,6 +110,45 @@ public class DeviceControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[1].name").value("Galaxy S24"));
     }
 
+    @Test
+    void shouldListDevicesInLeanPageFormatWhenAccepted() throws Exception {
+        deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+
+        mockMvc.perform(get("/api/v1/devices")
+                        .accept(PageFormatAdvice.LEAN_PAGE_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(PageFormatAdvice.LEAN_PAGE_JSON))
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.page.totalElements").value(2))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+    }
+
+    @Test
+    void shouldListDevicesWithCursor() throws Exception {
+        deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+        deviceRepository.save(new Device("Pixel 9", "Google"));
+
+        String response = mockMvc.perform(get("/api/v1/devices")
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].name").value("iPhone 16"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/devices")
+                        .param("after", nextCursor)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name").value("Pixel 9"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
     @Test
     void shouldUpdateDevice() throws Exception {
         Device device = deviceRepository.save(new Device("iPhone 16", "Apple"));
@@ -84,7 +159,12 @@ public class DeviceControllerIntegrationTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestBody))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("iPhone 16 Pro"));
+                .andExpect(jsonPath("$.name").value("iPhone 16 Pro"))
+                .andExpect(jsonPath("$.createdAt").isNotEmpty());
+
+        Device updated = deviceRepository.findById(device.getId()).orElseThrow();
+        assertEquals("iPhone 16 Pro", updated.getName());
+        assertTrue(updated.getModifiedAt().isAfter(device.getModifiedAt()));
     }
 
     @Test
@@ -113,6 +193,137 @@ public class DeviceControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldUpdateAndDeleteDevicesInBulk() throws Exception {
+        Device first = deviceRepository.save(new Device("Phone 1", "Acme"));
+        Device second = deviceRepository.save(new Device("Phone 2", "Acme"));
+        Device other = deviceRepository.save(new Device("Phone 3", "Other"));
+
+        mockMvc.perform(post("/api/v1/devices/batch/update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"filter\": {\"brand\": \"Acme\"}, \"set\": {\"brand\": \"Acme Corp\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        assertEquals("Acme Corp", deviceRepository.findById(first.getId()).orElseThrow().getBrand());
+        assertEquals("Other", deviceRepository.findById(other.getId()).orElseThrow().getBrand());
+
+        String deleteRequest = String.format("{\"ids\": [%d, %d, 999999]}", first.getId(), second.getId());
+        mockMvc.perform(post("/api/v1/devices/batch/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(deleteRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2))
+                .andExpect(jsonPath("$.notFound[0]").value(999999));
+        assertEquals(List.of(other.getId()), deviceRepository.findAll().stream().map(Device::getId).toList());
+        assertEquals(2, deviceTombstoneRepository.count());
+    }
+
+    @Test
+    void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        Device device = deviceRepository.save(new Device("iPhone 16", "Apple"));
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""));
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId())
+                        .header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldTagSelectedFieldsSeparately() throws Exception {
+        Device device = deviceRepository.save(new Device("iPhone 16", "Apple"));
+
+        // The whole device does not stand in for a selection of its fields.
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId())
+                        .param("fields", "name")
+                        .header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0;id;name\""))
+                .andExpect(jsonPath("$.name").value("iPhone 16"));
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId())
+                        .param("fields", "name")
+                        .header("If-None-Match", "\"0;id;name\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId())
+                        .param("fields", "brand")
+                        .header("If-None-Match", "\"0;id;name\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0;id;brand\""));
+
+        mockMvc.perform(delete("/api/v1/devices/{id}", device.getId())
+                        .header("If-Match", "\"0;id;name\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void shouldRejectWritesWithStaleETag() throws Exception {
+        Device device = deviceRepository.save(new Device("iPhone 16", "Apple"));
+        String requestBody = objectMapper.writeValueAsString(new DeviceRequestDTO("iPhone 16 Pro", "Apple"));
+
+        mockMvc.perform(put("/api/v1/devices/{id}", device.getId())
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        mockMvc.perform(patch("/api/v1/devices/{id}", device.getId())
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/api/v1/devices/{id}", device.getId())
+                        .header("If-Match", "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/v1/devices/{id}", device.getId()))
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name").value("iPhone 16 Pro"));
+        mockMvc.perform(delete("/api/v1/devices/{id}", device.getId())
+                        .header("If-Match", "\"1\""))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenUpdatingOrDeletingMissingDevice() throws Exception {
+        String requestBody = objectMapper.writeValueAsString(new DeviceRequestDTO("iPhone 16 Pro", "Apple"));
+
+        mockMvc.perform(put("/api/v1/devices/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(patch("/api/v1/devices/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/v1/devices/{id}", 1))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Device with id 1 not found"));
+    }
+
+    @Test
+    void shouldLookUpDevicesByIds() throws Exception {
+        Device apple = deviceRepository.save(new Device("iPhone 16", "Apple"));
+        Device samsung = deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+        long missing = samsung.getId() + 1000;
+
+        mockMvc.perform(post("/api/v1/devices/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(samsung.getId(), missing, apple.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.devices", hasSize(2)))
+                .andExpect(jsonPath("$.devices[0].id").value(samsung.getId()))
+                .andExpect(jsonPath("$.devices[1].id").value(apple.getId()))
+                .andExpect(jsonPath("$.devices[1].name").value("iPhone 16"))
+                .andExpect(jsonPath("$.notFound", hasSize(1)))
+                .andExpect(jsonPath("$.notFound[0]").value(missing));
+    }
+
     @Test
     void shouldReturnNotFoundWhenDeviceDoesNotExist() throws Exception {
         mockMvc.perform(get("/api/v1/devices/{id}", 1))
@@ -120,6 +331,24 @@ public class DeviceControllerIntegrationTest {
                 .andExpect(jsonPath("$.message").value("Device with id 1 not found"));
     }
 
+    @Test
+    void shouldRecordErrorAndQueryMetrics() throws Exception {
+        Counter errors = meterRegistry.counter("device.api.errors", "exception", "ResourceNotFoundException", "status", "404");
+        double errorsBefore = errors.count();
+
+        mockMvc.perform(get("/api/v1/devices/{id}", 1))
+                .andExpect(status().isNotFound());
+
+        assertEquals(errorsBefore + 1, errors.count());
+        DistributionSummary queries = meterRegistry.get("http.server.requests.queries")
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/devices/{id}")
+                .tag("status", "404")
+                .summary();
+        assertTrue(queries.count() >= 1);
+        assertTrue(queries.max() >= 1);
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {"Apple", "Samsung"})
     void shouldSearchDevicesByBrand(String brand) throws Exception {
@@ -130,4 +359,348 @@ public class DeviceControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].brand").value(brand));
     }
+
+    @Test
+    void shouldSearchDevicesByBrandIgnoringCaseAndPrefix() throws Exception {
+        deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+        deviceRepository.save(new Device("Pixel 9", "Google"));
+
+        mockMvc.perform(get("/api/v1/devices/search")
+                        .param("brand", "apple,SAMSUNG")
+                        .param("match", "ignore_case"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+
+        mockMvc.perform(get("/api/v1/devices/search")
+                        .param("brand", "goo")
+                        .param("match", "prefix"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].brand").value("Google"));
+    }
+
+    @Test
+    void shouldReturnOnlySelectedFields() throws Exception {
+        Device apple = deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+        deviceRepository.save(new Device("Pixel 9", "Google"));
+
+        mockMvc.perform(get("/api/v1/devices")
+                        .param("fields", "name")
+                        .param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].id").value(apple.getId()))
+                .andExpect(jsonPath("$.content[0].name").value("iPhone 16"))
+                .andExpect(jsonPath("$.content[0].brand").doesNotExist())
+                .andExpect(jsonPath("$.content[0].createdAt").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/devices/search")
+                        .param("brand", "g")
+                        .param("match", "prefix")
+                        .param("fields", "brand")
+                        .param("after", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].brand").value("Google"))
+                .andExpect(jsonPath("$.content[0].name").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/devices/{id}", apple.getId())
+                        .param("fields", "brand,createdAt"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.brand").value("Apple"))
+                .andExpect(jsonPath("$.createdAt").isNotEmpty())
+                .andExpect(jsonPath("$.name").doesNotExist());
+
+        mockMvc.perform(get("/api/v1/devices")
+                        .param("fields", "name,serial"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldCreateDevicesInBatch() throws Exception {
+        List<DeviceRequestDTO> request = List.of(
+                new DeviceRequestDTO("iPhone 16", "Apple"),
+                new DeviceRequestDTO("", "Samsung"),
+                new DeviceRequestDTO("Pixel 9", "Google"));
+
+        mockMvc.perform(post("/api/v1/devices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].id").isNotEmpty())
+                .andExpect(jsonPath("$.items[1].error").value("Device name is required"))
+                .andExpect(jsonPath("$.items[2].id").isNotEmpty());
+
+        assertEquals(2, deviceRepository.count());
+    }
+
+    @Test
+    void shouldCreateDevicesFromNdjson() throws Exception {
+        String body = """
+                {"name":"iPhone 16","brand":"Apple"}
+                {"name":"Galaxy S24",
+                {"name":"Pixel 9","brand":"Google"}
+                """;
+
+        mockMvc.perform(post("/api/v1/devices/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.items[1].error").isNotEmpty());
+
+        assertEquals(2, deviceRepository.count());
+    }
+
+    @Test
+    void shouldStoreNoMoreThanMaximumBatchSizeFromNdjson() throws Exception {
+        String body = "{\"name\":\"Pixel 9\",\"brand\":\"Google\"}\n".repeat(7);
+
+        mockMvc.perform(post("/api/v1/devices/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.succeeded").value(5))
+                .andExpect(jsonPath("$.truncated").value(true))
+                .andExpect(jsonPath("$.items", hasSize(5)));
+
+        assertEquals(5, deviceRepository.count());
+    }
+
+    @Test
+    void shouldCreateAndGetDeviceAsCbor() throws Exception {
+        byte[] created = mockMvc.perform(post("/api/v1/devices")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new DeviceRequestDTO("iPhone 16", "Apple"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode device = cborMapper.readTree(created);
+        assertEquals("iPhone 16", device.get("name").asText());
+        assertEquals("Apple", device.get("brand").asText());
+
+        byte[] found = mockMvc.perform(get("/api/v1/devices/{id}", device.get("id").asLong())
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(device, cborMapper.readTree(found));
+        // The same document as JSON, including the creation time.
+        mockMvc.perform(get("/api/v1/devices/{id}", device.get("id").asLong()))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.createdAt").value(device.get("createdAt").asText()));
+    }
+
+    @Test
+    void shouldListDevicesAsCbor() throws Exception {
+        deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+
+        byte[] response = mockMvc.perform(get("/api/v1/devices")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode page = cborMapper.readTree(response);
+        assertEquals(2, page.get("content").size());
+        assertEquals("iPhone 16", page.get("content").get(0).get("name").asText());
+        assertEquals(2, page.get("totalElements").asInt());
+    }
+
+    @Test
+    void shouldCreateDevicesInBatchFromCbor() throws Exception {
+        List<DeviceRequestDTO> request = List.of(
+                new DeviceRequestDTO("iPhone 16", "Apple"),
+                new DeviceRequestDTO("", "Samsung"));
+
+        byte[] response = mockMvc.perform(post("/api/v1/devices/batch")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BatchResultDTO result = cborMapper.readValue(response, BatchResultDTO.class);
+        assertEquals(2, result.total());
+        assertEquals(1, result.succeeded());
+        assertEquals("Device name is required", result.items().get(1).error());
+    }
+
+    @Test
+    void shouldExportDevicesAsNdjson() throws Exception {
+        Device apple = deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/devices/export")
+                        .param("brand", "Apple"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"id\":" + apple.getId())))
+                .andExpect(content().string(not(containsString("Samsung"))));
+    }
+
+    @Test
+    void shouldExportDevicesAsGzippedCsv() throws Exception {
+        deviceRepository.save(new Device("iPhone 16, 128GB", "Apple"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/devices/export")
+                        .param("format", "csv")
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("id,name,brand,createdAt", lines[0]);
+        assertTrue(lines[1].contains(",\"iPhone 16, 128GB\",Apple,"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"gzip;q=0", "gzip; q=0.0, deflate", "*;q=0", "deflate, br", "identity"})
+    void shouldExportUncompressedUnlessGzipIsAccepted(String acceptEncoding) throws Exception {
+        deviceRepository.save(new Device("iPhone 16", "Apple"));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/devices/export")
+                        .param("format", "csv")
+                        .header("Accept-Encoding", acceptEncoding))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(containsString("iPhone 16")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"deflate;q=1, gzip;q=0.5", "br, *;q=0.1", "GZIP"})
+    void shouldExportGzippedWhenGzipIsAccepted(String acceptEncoding) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/devices/export")
+                        .param("format", "csv")
+                        .header("Accept-Encoding", acceptEncoding))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    void shouldRejectUnsupportedExportFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/export")
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRunExportAndBulkDeleteAsJobs() throws Exception {
+        deviceRepository.save(new Device("iPhone 16", "Apple"));
+        deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+
+        String exportJob = mockMvc.perform(post("/api/v1/jobs/export")
+                        .param("brand", "Apple"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", containsString("/api/v1/jobs/")))
+                .andExpect(jsonPath("$.type").value("EXPORT"))
+                .andReturn().getResponse().getContentAsString();
+        String exportId = objectMapper.readTree(exportJob).get("id").asText();
+        awaitJob(exportId);
+
+        mockMvc.perform(get("/api/v1/jobs/{id}/result", exportId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("iPhone 16")))
+                .andExpect(content().string(not(containsString("Samsung"))));
+
+        String deleteJob = mockMvc.perform(post("/api/v1/jobs/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"brand\":\"Samsung\"}"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String deleteId = objectMapper.readTree(deleteJob).get("id").asText();
+        awaitJob(deleteId);
+
+        mockMvc.perform(get("/api/v1/jobs/{id}", deleteId))
+                .andExpect(jsonPath("$.processed").value(1))
+                .andExpect(jsonPath("$.result.affected").value(1));
+        assertEquals(1, deviceRepository.count());
+
+        mockMvc.perform(get("/api/v1/jobs/{id}/result", deleteId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReportUpsertsAndDeletesInChangeFeed() throws Exception {
+        Device kept = deviceRepository.save(new Device("iPhone 16", "Apple"));
+        Device removed = deviceRepository.save(new Device("Galaxy S24", "Samsung"));
+
+        mockMvc.perform(delete("/api/v1/devices/{id}", removed.getId()))
+                .andExpect(status().isNoContent());
+
+        String response = mockMvc.perform(get("/api/v1/devices/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(2)))
+                .andExpect(jsonPath("$.changes[0].type").value("UPSERT"))
+                .andExpect(jsonPath("$.changes[0].id").value(kept.getId()))
+                .andExpect(jsonPath("$.changes[0].device.name").value("iPhone 16"))
+                .andExpect(jsonPath("$.changes[1].type").value("DELETE"))
+                .andExpect(jsonPath("$.changes[1].id").value(removed.getId()))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn().getResponse().getContentAsString();
+        String nextCursor = objectMapper.readTree(response).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/devices/changes")
+                        .param("after", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+    }
+
+    @Test
+    void shouldOpenDeviceEventStream() throws Exception {
+        mockMvc.perform(get("/api/v1/devices/events")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", containsString(MediaType.TEXT_EVENT_STREAM_VALUE)));
+    }
+
+    private void awaitJob(String id) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            String response = mockMvc.perform(get("/api/v1/jobs/{id}", id))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            String status = objectMapper.readTree(response).get("status").asText();
+            if (!status.equals("QUEUED") && !status.equals("RUNNING")) {
+                assertEquals("SUCCEEDED", status, response);
+                return;
+            }
+            assertTrue(System.nanoTime() < deadline, "Job did not finish in time");
+            Thread.sleep(10);
+        }
+    }
 }
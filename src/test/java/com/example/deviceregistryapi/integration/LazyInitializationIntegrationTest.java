@@ -0,0 +1,30 @@
+package com.example.deviceregistryapi.integration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the lazy profile defers the web layer but still starts the scheduled tasks, and with them the database.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:lazy-initialization;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE")
+@ActiveProfiles("lazy")
+public class LazyInitializationIntegrationTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void shouldCreateOnlyScheduledBeansAtStartup() {
+        assertFalse(beanFactory.containsSingleton("deviceController"));
+
+        assertTrue(beanFactory.containsSingleton("deviceChangeFeedService"));
+        assertTrue(beanFactory.containsSingleton("jobService"));
+        assertTrue(beanFactory.containsSingleton("loadShedder"));
+        assertTrue(beanFactory.containsSingleton("entityManagerFactory"));
+    }
+}
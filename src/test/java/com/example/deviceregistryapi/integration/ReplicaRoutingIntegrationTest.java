@@ -0,0 +1,48 @@
+package com.example.deviceregistryapi.integration;
+
+import com.example.deviceregistryapi.dto.DeviceRequestDTO;
+import com.example.deviceregistryapi.service.DeviceService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Points the replica at the primary database, so that routing can be observed through the pools.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+        "device-registry.replica.jdbc-url=jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE"
+})
+public class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private DeviceService deviceService;
+
+    @Test
+    void shouldServeReadOnlyTransactionsFromReplica() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        // Writes go to the primary, so the replica pool is not even started yet.
+        deviceService.addDevice(new DeviceRequestDTO("iPhone 16", "Apple"));
+        assertNull(replicaDataSource.getHikariPoolMXBean());
+
+        assertEquals(1, deviceService.listAllDevices(PageRequest.of(0, 10)).getTotalElements());
+
+        assertNotNull(replicaDataSource.getHikariPoolMXBean());
+        assertTrue(replicaDataSource.getHikariPoolMXBean().getTotalConnections() > 0);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.deviceregistryapi.job;
+
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.BulkResultDTO;
+import com.example.deviceregistryapi.dto.DeviceFilterDTO;
+import com.example.deviceregistryapi.dto.JobDTO;
+import com.example.deviceregistryapi.exception.JobQueueFullException;
+import com.example.deviceregistryapi.exception.PayloadTooLargeException;
+import com.example.deviceregistryapi.exception.ResourceNotFoundException;
+import com.example.deviceregistryapi.service.DeviceBatchService;
+import com.example.deviceregistryapi.service.DeviceExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobServiceTest {
+
+    private static final DeviceFilterDTO FILTER = new DeviceFilterDTO(null, "Apple");
+
+    @Mock
+    private DeviceBatchService deviceBatchService;
+
+    @Mock
+    private DeviceExportService deviceExportService;
+
+    @Mock
+    private JobThrottle throttle;
+
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new JobService(deviceBatchService, deviceExportService, throttle,
+                TestDeviceRegistryProperties.with(Map.of(
+                        "jobs.concurrency", "1",
+                        "jobs.queue-capacity", "1",
+                        "jobs.max-import-size", "10B")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.destroy();
+    }
+
+    @Test
+    void submitBulkDelete_shouldReportProgressAndResult() throws InterruptedException {
+        when(deviceBatchService.deleteDevices(eq(FILTER), any())).thenAnswer(invocation -> {
+            JobProgress progress = invocation.getArgument(1);
+            progress.checkpoint();
+            progress.advance(3);
+            return new BulkResultDTO(3, List.of());
+        });
+
+        String id = jobService.submitBulkDelete(FILTER).id();
+
+        awaitTrue(() -> jobService.getJob(id).status() == JobStatus.SUCCEEDED);
+        JobDTO job = jobService.getJob(id);
+        assertEquals(3, job.processed());
+        assertEquals(new BulkResultDTO(3, List.of()), job.result());
+        assertNotNull(job.startedAt());
+        assertNotNull(job.finishedAt());
+        verify(throttle).awaitIdlePool();
+    }
+
+    @Test
+    void submit_shouldRejectJobs_whenQueueIsFull() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceBatchService.deleteDevices(eq(FILTER), any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return new BulkResultDTO(0, List.of());
+        });
+
+        jobService.submitBulkDelete(FILTER);
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        jobService.submitBulkDelete(FILTER);
+
+        JobQueueFullException ex = assertThrows(JobQueueFullException.class, () -> jobService.submitBulkDelete(FILTER));
+        assertEquals("The job queue is full, try again later", ex.getMessage());
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        release.countDown();
+    }
+
+    @Test
+    void cancelJob_shouldStopRunningJobAtNextCheckpoint() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceBatchService.deleteDevices(eq(FILTER), any())).thenAnswer(invocation -> {
+            JobProgress progress = invocation.getArgument(1);
+            running.countDown();
+            release.await();
+            progress.checkpoint();
+            return new BulkResultDTO(0, List.of());
+        });
+
+        String id = jobService.submitBulkDelete(FILTER).id();
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        String queued = jobService.submitBulkDelete(FILTER).id();
+
+        assertEquals(JobStatus.CANCELLED, jobService.cancelJob(queued).status());
+        assertEquals(JobStatus.RUNNING, jobService.cancelJob(id).status());
+        release.countDown();
+
+        awaitTrue(() -> jobService.getJob(id).status() == JobStatus.CANCELLED);
+        verify(deviceBatchService, times(1)).deleteDevices(eq(FILTER), any());
+    }
+
+    @Test
+    void submitImport_shouldRejectBodiesAboveMaximumSize() {
+        byte[] body = "{\"name\":\"Device\",\"brand\":\"Brand\"}\n".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(PayloadTooLargeException.class, () -> jobService.submitImport(new ByteArrayInputStream(body)));
+
+        verifyNoInteractions(deviceBatchService);
+    }
+
+    @Test
+    void getExportFile_shouldThrowException_whenJobIsNotAnExport() throws InterruptedException {
+        when(deviceBatchService.deleteDevices(eq(FILTER), any())).thenReturn(new BulkResultDTO(0, List.of()));
+        String id = jobService.submitBulkDelete(FILTER).id();
+        awaitTrue(() -> jobService.getJob(id).status().isFinished());
+
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getExportFile(id));
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getJob("missing"));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
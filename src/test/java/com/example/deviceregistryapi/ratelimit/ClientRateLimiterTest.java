@@ -0,0 +1,126 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.example.deviceregistryapi.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    private final ClientRateLimiter rateLimiter = new ClientRateLimiter(TestDeviceRegistryProperties.with(Map.of(
+            "rate-limit.enabled", "true",
+            "rate-limit.reads-per-second", "1",
+            "rate-limit.read-burst", "2",
+            "rate-limit.writes-per-second", "1",
+            "rate-limit.write-burst", "1")));
+
+    @Test
+    void tokenBucket_shouldAllowBurstAndThenRefillAtRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(0, bucket.tryTake(0));
+        assertEquals(100 * MILLIS, bucket.tryTake(0));
+        assertEquals(60 * MILLIS, bucket.tryTake(40 * MILLIS));
+
+        assertEquals(0, bucket.tryTake(100 * MILLIS));
+        assertEquals(100 * MILLIS, bucket.tryTake(100 * MILLIS));
+    }
+
+    @Test
+    void tokenBucket_shouldNotStoreMoreThanBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+        long later = TimeUnit.HOURS.toNanos(1);
+        assertEquals(0, bucket.tryTake(later));
+        assertEquals(0, bucket.tryTake(later));
+        assertTrue(bucket.tryTake(later) > 0);
+    }
+
+    @Test
+    void tokenBucket_shouldHandOutEachTokenOnceUnderContention() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 1000, System.nanoTime());
+        AtomicInteger taken = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        if (bucket.tryTake(System.nanoTime()) == 0) {
+                            taken.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // One more token may have been added while the threads were running.
+        assertTrue(taken.get() >= 1000 && taken.get() <= 1001, "taken: " + taken.get());
+    }
+
+    @Test
+    void acquire_shouldLimitReadsAndWritesSeparately() {
+        rateLimiter.acquire("address:a", false);
+        rateLimiter.acquire("address:a", false);
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("address:a", false));
+        assertEquals("Rate limit of 1 reads per second exceeded", ex.getMessage());
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ofSeconds(1)) <= 0);
+
+        rateLimiter.acquire("address:a", true);
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("address:a", true));
+    }
+
+    @Test
+    void acquire_shouldLimitClientsSeparately() {
+        rateLimiter.acquire("address:a", true);
+        assertThrows(TooManyRequestsException.class, () -> rateLimiter.acquire("address:a", true));
+
+        rateLimiter.acquire("address:b", true);
+    }
+
+    @Test
+    void client_shouldUsePrincipalOrAddressAndIgnoreApiKeyHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-API-Key", "anything");
+
+        assertEquals("address:203.0.113.7", RateLimitInterceptor.client(request));
+
+        request.setUserPrincipal(() -> "alice");
+        assertEquals("principal:alice", RateLimitInterceptor.client(request));
+    }
+
+    @Test
+    void acquire_shouldAllowEverythingWhenDisabled() {
+        ClientRateLimiter disabled = new ClientRateLimiter(TestDeviceRegistryProperties.with(Map.of(
+                "rate-limit.enabled", "false",
+                "rate-limit.writes-per-second", "1",
+                "rate-limit.write-burst", "1")));
+
+        for (int i = 0; i < 10; i++) {
+            disabled.acquire("address:a", true);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.deviceregistryapi.ratelimit;
+
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.example.deviceregistryapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+
+    private MeterRegistry meterRegistry;
+    private Timer acquireTimer;
+    private AtomicInteger pending;
+    private LoadShedder loadShedder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // The meters Spring Boot registers for a Hikari pool.
+        acquireTimer = Timer.builder("hikaricp.connections.acquire").tag("pool", "test").register(meterRegistry);
+        pending = new AtomicInteger();
+        Gauge.builder("hikaricp.connections.pending", pending, AtomicInteger::get).tag("pool", "test").register(meterRegistry);
+        loadShedder = new LoadShedder(TestDeviceRegistryProperties.with(Map.of(
+                "load-shedding.max-in-flight", "2",
+                "load-shedding.max-pool-wait", "100ms")), meterRegistry);
+    }
+
+    @Test
+    void enter_shouldRejectRequestsBeyondMaxInFlight() {
+        loadShedder.enter();
+        loadShedder.enter();
+
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class, loadShedder::enter);
+        assertEquals(Duration.ofSeconds(1), ex.getRetryAfter());
+        assertEquals(2.0, meterRegistry.get("device.api.inflight").gauge().value());
+
+        loadShedder.exit();
+        loadShedder.enter();
+    }
+
+    @Test
+    void sample_shouldShedMoreWhilePoolWaitIsHighAndLessOnceItRecovers() {
+        for (int i = 0; i < 12; i++) {
+            acquireTimer.record(Duration.ofMillis(200));
+            loadShedder.sample();
+        }
+        assertEquals(0.9, loadShedder.getShedRatio(), 1e-9);
+
+        acquireTimer.record(Duration.ofMillis(1));
+        loadShedder.sample();
+        assertEquals(0.8, loadShedder.getShedRatio(), 1e-9);
+
+        // Idle: nothing acquired and nobody waiting.
+        for (int i = 0; i < 10; i++) {
+            loadShedder.sample();
+        }
+        assertEquals(0.0, loadShedder.getShedRatio());
+        loadShedder.enter();
+    }
+
+    @Test
+    void sample_shouldShedWhileRequestsWaitAndNoConnectionIsHandedOut() {
+        pending.set(5);
+
+        loadShedder.sample();
+
+        assertEquals(0.1, loadShedder.getShedRatio(), 1e-9);
+    }
+
+    @Test
+    void enter_shouldNotShedWhenDisabled() {
+        LoadShedder disabled = new LoadShedder(TestDeviceRegistryProperties.with(Map.of(
+                "load-shedding.enabled", "false",
+                "load-shedding.max-in-flight", "1")), new SimpleMeterRegistry());
+
+        disabled.enter();
+        disabled.enter();
+    }
+}
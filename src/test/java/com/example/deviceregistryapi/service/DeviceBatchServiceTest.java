@@ -0,0 +1,217 @@
+package com.example.deviceregistryapi.service;
+
+import com.example.deviceregistryapi.cache.DeviceCache;
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.BatchItemResultDTO;
+import com.example.deviceregistryapi.dto.BatchResultDTO;
+import com.example.deviceregistryapi.dto.BulkResultDTO;
+import com.example.deviceregistryapi.dto.BulkUpdateRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceFilterDTO;
+import com.example.deviceregistryapi.dto.DeviceRequestDTO;
+import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEvent;
+import com.example.deviceregistryapi.job.JobProgress;
+import com.example.deviceregistryapi.model.Device;
+import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.example.deviceregistryapi.repository.DeviceTombstoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeviceBatchServiceTest {
+
+    @Mock
+    private DeviceRepository deviceRepository;
+
+    @Mock
+    private DeviceTombstoneRepository deviceTombstoneRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DeviceBatchService deviceBatchService;
+
+    @BeforeEach
+    void setUp() {
+        DeviceRegistryProperties properties = TestDeviceRegistryProperties.with(Map.of(
+                "batch.chunk-size", "2",
+                "batch.max-items", "5",
+                "batch.max-line-size", "64B",
+                "jobs.max-import-items", "9",
+                "jobs.max-import-errors", "2"));
+        deviceBatchService = new DeviceBatchService(deviceRepository,
+                deviceTombstoneRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(),
+                properties,
+                new DeviceCache(properties),
+                eventPublisher,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void addDevices_shouldSaveValidDevicesInChunks() {
+        AtomicLong ids = new AtomicLong();
+        when(deviceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Device> devices = invocation.getArgument(0);
+            devices.forEach(device -> device.setId(ids.incrementAndGet()));
+            return List.copyOf(devices);
+        });
+
+        BatchResultDTO result = deviceBatchService.addDevices(List.of(
+                new DeviceRequestDTO("Device 1", "Brand"),
+                new DeviceRequestDTO("Device 2", "Brand"),
+                new DeviceRequestDTO("Device 3", null),
+                new DeviceRequestDTO("Device 4", "Brand")));
+
+        assertEquals(4, result.total());
+        assertEquals(3, result.succeeded());
+        assertEquals(1, result.failed());
+        assertEquals(1L, result.items().get(0).id());
+        assertEquals(2L, result.items().get(1).id());
+        assertEquals("Device brand is required", result.items().get(2).error());
+        assertEquals(3L, result.items().get(3).id());
+
+        verify(deviceRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void addDevices_shouldRejectBatchesAboveMaximumSize() {
+        List<DeviceRequestDTO> requests = Collections.nCopies(6, new DeviceRequestDTO("Device", "Brand"));
+
+        assertThrows(IllegalArgumentException.class, () -> deviceBatchService.addDevices(requests));
+
+        verify(deviceRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addDevices_shouldStopReadingNdjsonAboveMaximumSize() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(deviceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Device> devices = invocation.getArgument(0);
+            devices.forEach(device -> device.setId(ids.incrementAndGet()));
+            return List.copyOf(devices);
+        });
+        String ndjson = "{\"name\":\"Device\",\"brand\":\"Brand\"}\n".repeat(7);
+
+        BatchResultDTO result = deviceBatchService.addDevices(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, result.total());
+        assertEquals(5, result.succeeded());
+        assertEquals(0, result.failed());
+        assertTrue(result.truncated());
+        assertEquals(5, result.items().size());
+        assertEquals(5, ids.get());
+    }
+
+    @Test
+    void addDevices_shouldSkipNdjsonLinesAboveMaximumLength() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(deviceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Device> devices = invocation.getArgument(0);
+            devices.forEach(device -> device.setId(ids.incrementAndGet()));
+            return List.copyOf(devices);
+        });
+        // A "\r\n" line break, an overlong line, a blank line and a last line without a line break.
+        String ndjson = "{\"name\":\"Device\",\"brand\":\"Brand\"}\r\n"
+                + "{\"name\":\"" + "x".repeat(100_000) + "\",\"brand\":\"Brand\"}\n"
+                + "\n"
+                + "{\"name\":\"Device\",\"brand\":\"Brand\"}";
+
+        BatchResultDTO result = deviceBatchService.addDevices(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, result.total());
+        assertEquals(2, result.succeeded());
+        assertFalse(result.truncated());
+        assertEquals("A line may be at most 64 bytes long", result.items().get(1).error());
+    }
+
+    @Test
+    void importDevices_shouldAcceptMoreThanBatchMaximumAndListOnlyFirstFailures() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(deviceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Device> devices = invocation.getArgument(0);
+            devices.forEach(device -> device.setId(ids.incrementAndGet()));
+            return List.copyOf(devices);
+        });
+        String ndjson = "{\"name\":\"Device\",\"brand\":\"Brand\"}\n".repeat(6) + "{\"name\":\"Device\"}\n".repeat(4);
+
+        BatchResultDTO result = deviceBatchService.importDevices(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), JobProgress.NONE);
+
+        assertEquals(9, result.total());
+        assertEquals(6, result.succeeded());
+        assertEquals(3, result.failed());
+        assertTrue(result.truncated());
+        assertEquals(List.of(6, 7), result.items().stream().map(BatchItemResultDTO::index).toList());
+    }
+
+    @Test
+    void deleteDevices_shouldDeleteRequestedIdsInChunksAndReportMissingOnes() {
+        when(deviceRepository.lockExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(deviceRepository.lockExistingIds(List.of(3L))).thenReturn(List.of());
+
+        BulkResultDTO result = deviceBatchService.deleteDevices(new DeviceFilterDTO(List.of(1L, 2L, 3L, 2L), null));
+
+        assertEquals(2, result.affected());
+        assertEquals(List.of(3L), result.notFound());
+        verify(deviceRepository, times(1)).deleteDirectlyByIdIn(List.of(1L, 2L));
+        verify(deviceTombstoneRepository, times(1)).saveAll(anyList());
+        verify(eventPublisher, times(1)).publishEvent(DeviceEvent.deleted(1L));
+        verify(eventPublisher, times(1)).publishEvent(DeviceEvent.deleted(2L));
+    }
+
+    @Test
+    void updateDevices_shouldWalkBrandInChunks() {
+        when(deviceRepository.findIdsByBrandAfter("Old", 0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(deviceRepository.findIdsByBrandAfter("Old", 2L, Limit.of(2))).thenReturn(List.of(5L));
+        when(deviceRepository.findIdsByBrandAfter("Old", 5L, Limit.of(2))).thenReturn(List.of());
+        when(deviceRepository.patchAllByIdIn(anyList(), isNull(), eq("New"), eq("new"), any())).thenReturn(2, 1);
+        when(deviceRepository.findResponsesByIdIn(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new DeviceResponseDTO(id, "Device", "New", null, 1L)).toList();
+        });
+
+        BulkResultDTO result = deviceBatchService.updateDevices(
+                new BulkUpdateRequestDTO(new DeviceFilterDTO(null, "Old"), new DeviceRequestDTO(null, "New")));
+
+        assertEquals(3, result.affected());
+        assertTrue(result.notFound().isEmpty());
+        verify(deviceRepository, times(2)).patchAllByIdIn(anyList(), isNull(), eq("New"), eq("new"), any());
+        verify(eventPublisher, times(3)).publishEvent(any(DeviceEvent.class));
+    }
+
+    @Test
+    void deleteDevices_shouldRequireEitherIdsOrBrand() {
+        assertThrows(IllegalArgumentException.class, () -> deviceBatchService.deleteDevices(new DeviceFilterDTO(null, null)));
+        assertThrows(IllegalArgumentException.class, () -> deviceBatchService.deleteDevices(new DeviceFilterDTO(List.of(1L), "Brand")));
+        verifyNoInteractions(deviceRepository);
+    }
+}
@@ -1,26 +1,58 @@
 package com.example.deviceregistryapi.service;
 
+import com.example.deviceregistryapi.cache.DeviceCache;
+import com.example.deviceregistryapi.config.DeviceRegistryProperties;
+import com.example.deviceregistryapi.config.TestDeviceRegistryProperties;
+import com.example.deviceregistryapi.dto.CursorPageDTO;
+import com.example.deviceregistryapi.dto.DeviceField;
+import com.example.deviceregistryapi.dto.DeviceLookupDTO;
 import com.example.deviceregistryapi.dto.DeviceRequestDTO;
 import com.example.deviceregistryapi.dto.DeviceResponseDTO;
+import com.example.deviceregistryapi.event.DeviceEvent;
+import com.example.deviceregistryapi.exception.PreconditionFailedException;
 import com.example.deviceregistryapi.exception.ResourceNotFoundException;
+import com.example.deviceregistryapi.index.DeviceIndex;
 import com.example.deviceregistryapi.model.Device;
+import com.example.deviceregistryapi.model.DeviceTombstone;
 import com.example.deviceregistryapi.repository.DeviceRepository;
+import com.example.deviceregistryapi.repository.DeviceTombstoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,9 +61,32 @@ class DeviceServiceTest {
     @Mock
     private DeviceRepository deviceRepository;
 
-    @InjectMocks
+    @Mock
+    private DeviceTombstoneRepository deviceTombstoneRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+
     private DeviceService deviceService;
 
+    @BeforeEach
+    void setUp() {
+        DeviceRegistryProperties properties = TestDeviceRegistryProperties.with(Map.of(
+                "pagination.max-page-size", "2",
+                "lookup.max-ids", "4",
+                "lookup.chunk-size", "2"));
+        meterRegistry = new SimpleMeterRegistry();
+        DeviceCache deviceCache = new DeviceCache(properties);
+        deviceCache.bindTo(meterRegistry);
+        deviceService = new DeviceService(deviceRepository, deviceTombstoneRepository, properties,
+                deviceCache, eventPublisher, new DeviceIndex(deviceRepository, properties), transactionManager, meterRegistry);
+    }
+
     @Test
     void addDevice_shouldSaveDeviceAndReturnResponseDTO() {
         DeviceRequestDTO deviceRequestDTO = new DeviceRequestDTO("Device TEST", "Brand TEST");
@@ -87,6 +142,203 @@ class DeviceServiceTest {
         verify(deviceRepository, times(1)).findById(deviceId);
     }
 
+    @Test
+    void getDeviceById_shouldServeRepeatedLookupsFromCache() {
+        Long deviceId = 1L;
+        when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(getDevice()));
+
+        DeviceResponseDTO first = deviceService.getDeviceById(deviceId);
+        DeviceResponseDTO second = deviceService.getDeviceById(deviceId);
+
+        assertSame(first, second);
+        verify(deviceRepository, times(1)).findById(deviceId);
+    }
+
+    @Test
+    void getDeviceById_shouldCacheUnknownIds() {
+        Long deviceId = 1L;
+        when(deviceRepository.findById(deviceId)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.getDeviceById(deviceId));
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.getDeviceById(deviceId));
+
+        verify(deviceRepository, times(1)).findById(deviceId);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void getDeviceById_shouldLookForUnknownIdOnPrimaryBeforeCachingIt() {
+        Long deviceId = 1L;
+        Device device = getDevice();
+        // Not yet on the replica, already on the primary.
+        when(deviceRepository.findById(deviceId)).thenReturn(Optional.empty(), Optional.of(device));
+        DeviceService replicatedService = replicatedService();
+
+        assertEquals(device.getId(), replicatedService.getDeviceById(deviceId).id());
+        assertEquals(device.getId(), replicatedService.getDeviceById(deviceId).id());
+
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(deviceRepository, times(2)).findById(deviceId);
+    }
+
+    @Test
+    void getDeviceById_shouldShareOneQueryBetweenConcurrentLookups() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceRepository.findById(1L)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(getDevice());
+        });
+
+        List<DeviceResponseDTO> results = runConcurrently(4, () -> deviceService.getDeviceById(1L),
+                queryStarted, release, "getDeviceById");
+
+        results.forEach(result -> assertEquals(1L, result.id()));
+        verify(deviceRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void getDevicesByBrand_shouldShareOneQueryBetweenConcurrentIdenticalSearches() throws Exception {
+        Pageable pageable = PageRequest.of(0, 10);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(deviceRepository.findAllByBrand("Brand TEST", pageable)).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new PageImpl<>(List.of(getDevice()), pageable, 1);
+        });
+
+        List<Page<DeviceResponseDTO>> results = runConcurrently(4,
+                () -> deviceService.getDevicesByBrand(" Brand TEST ", BrandMatch.EXACT, pageable),
+                queryStarted, release, "getDevicesByBrand.page");
+
+        results.forEach(result -> assertEquals(1, result.getTotalElements()));
+        verify(deviceRepository, times(1)).findAllByBrand("Brand TEST", pageable);
+    }
+
+    /**
+     * Starts one call and, once its query is running, the other calls; then lets the query finish.
+     */
+    private <T> List<T> runConcurrently(int calls, Callable<T> call, CountDownLatch queryStarted, CountDownLatch release,
+                                        String operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(calls);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            futures.add(executor.submit(call));
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < calls; i++) {
+                futures.add(executor.submit(call));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (collapsedCalls(operation) < calls - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(calls - 1, collapsedCalls(operation));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double collapsedCalls(String operation) {
+        return meterRegistry.get("device.coalescing.calls")
+                .tags("operation", operation, "result", "collapsed")
+                .functionCounter()
+                .count();
+    }
+
+    @Test
+    void getDevicesByIds_shouldReturnDevicesInRequestOrder_andCacheResults() {
+        DeviceResponseDTO first = new DeviceResponseDTO(1L, "Device 1", "Brand", LocalDateTime.now());
+        DeviceResponseDTO third = new DeviceResponseDTO(3L, "Device 3", "Brand", LocalDateTime.now());
+        when(deviceRepository.findResponsesByIdIn(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return Stream.of(first, third).filter(device -> ids.contains(device.id())).toList();
+        });
+
+        DeviceLookupDTO lookup = deviceService.getDevicesByIds(Arrays.asList(3L, 2L, null, 1L, 3L));
+
+        assertEquals(List.of(third, first), lookup.devices());
+        assertEquals(List.of(2L), lookup.notFound());
+
+        // Found and missing devices are now cached.
+        DeviceLookupDTO repeated = deviceService.getDevicesByIds(List.of(1L, 2L, 3L));
+        assertEquals(List.of(first, third), repeated.devices());
+        assertEquals(List.of(2L), repeated.notFound());
+        verify(deviceRepository, times(2)).findResponsesByIdIn(any());
+        verify(deviceRepository, never()).findById(any());
+    }
+
+    @Test
+    void getDevicesByIds_shouldQueryUncachedIdsInChunks() {
+        when(deviceRepository.findResponsesByIdIn(any())).thenReturn(List.of());
+
+        DeviceLookupDTO lookup = deviceService.getDevicesByIds(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(1L, 2L, 3L), lookup.notFound());
+        verify(deviceRepository).findResponsesByIdIn(List.of(1L, 2L));
+        verify(deviceRepository).findResponsesByIdIn(List.of(3L));
+    }
+
+    @Test
+    void getDevicesByIds_shouldLookForUnknownIdsOnPrimaryBeforeCachingThem() {
+        DeviceResponseDTO second = new DeviceResponseDTO(2L, "Device 2", "Brand", LocalDateTime.now());
+        // Device 2 is not yet on the replica, already on the primary.
+        when(deviceRepository.findResponsesByIdIn(any())).thenReturn(List.of(), List.of(second));
+        DeviceService replicatedService = replicatedService();
+
+        DeviceLookupDTO lookup = replicatedService.getDevicesByIds(List.of(1L, 2L));
+
+        assertEquals(List.of(second), lookup.devices());
+        assertEquals(List.of(1L), lookup.notFound());
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(deviceRepository, times(2)).findResponsesByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    void getDevicesByIds_shouldServeDevicesFromReadyIndex() {
+        DeviceRegistryProperties properties = TestDeviceRegistryProperties.defaults();
+        DeviceIndex deviceIndex = mock(DeviceIndex.class);
+        DeviceResponseDTO first = new DeviceResponseDTO(1L, "Device 1", "Brand", LocalDateTime.now());
+        when(deviceIndex.isReady()).thenReturn(true);
+        when(deviceIndex.get(1L)).thenReturn(first);
+        DeviceService indexedService = new DeviceService(deviceRepository, deviceTombstoneRepository, properties,
+                new DeviceCache(properties), eventPublisher, deviceIndex, transactionManager, new SimpleMeterRegistry());
+
+        DeviceLookupDTO lookup = indexedService.getDevicesByIds(List.of(2L, 1L));
+
+        assertEquals(List.of(first), lookup.devices());
+        assertEquals(List.of(2L), lookup.notFound());
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    void getDevicesByIds_shouldThrowException_whenTooManyIdsAreGiven() {
+        assertThrows(IllegalArgumentException.class, () -> deviceService.getDevicesByIds(List.of(1L, 2L, 3L, 4L, 5L)));
+
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    void deleteDevice_shouldEvictCachedDevice() {
+        Long deviceId = 1L;
+        Device device = getDevice();
+        when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device), Optional.empty());
+        when(deviceRepository.deleteDirectlyById(deviceId, null)).thenReturn(1);
+
+        deviceService.getDeviceById(deviceId);
+        deviceService.deleteDevice(deviceId);
+
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.getDeviceById(deviceId));
+        verify(deviceRepository, times(2)).findById(deviceId);
+    }
+
     @Test
     void listAllDevices_shouldReturnPageOfDeviceResponseDTOs() {
         Pageable pageable = PageRequest.of(0, 10);
@@ -129,16 +381,12 @@ class DeviceServiceTest {
         Long deviceId = 1L;
         DeviceRequestDTO requestDTO = new DeviceRequestDTO("Updated Device Name", "Updated Brand");
 
-        Device existingDevice = new Device("Old Device Name", "Old Brand");
-        existingDevice.setId(deviceId);
-        existingDevice.setCreatedAt(LocalDateTime.now());
+        LocalDateTime createdAt = LocalDateTime.now();
 
-        Device updatedDevice = new Device("Updated Device Name", "Updated Brand");
-        updatedDevice.setId(deviceId);
-        updatedDevice.setCreatedAt(existingDevice.getCreatedAt());
-
-        when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(existingDevice));
-        when(deviceRepository.save(existingDevice)).thenReturn(updatedDevice);
+        when(deviceRepository.updateById(eq(deviceId), eq("Updated Device Name"), eq("Updated Brand"), eq("updated brand"), any(), isNull()))
+                .thenReturn(1);
+        when(deviceRepository.findResponseById(deviceId))
+                .thenReturn(Optional.of(new DeviceResponseDTO(deviceId, "Updated Device Name", "Updated Brand", createdAt, 1L)));
 
         DeviceResponseDTO result = deviceService.updateDevice(deviceId, requestDTO);
 
@@ -146,10 +394,30 @@ class DeviceServiceTest {
         assertEquals(deviceId, result.id());
         assertEquals("Updated Device Name", result.name());
         assertEquals("Updated Brand", result.brand());
-        assertEquals(existingDevice.getCreatedAt(), result.createdAt());
+        assertEquals(createdAt, result.createdAt());
+
+        verify(deviceRepository, never()).findById(any());
+        verify(deviceRepository, never()).save(any());
+        verify(eventPublisher, times(1)).publishEvent(DeviceEvent.updated(result));
+    }
+
+    @Test
+    void updateDevice_shouldNotReadDevice_whenDeviceIsCachedAndVersionIsExpected() {
+        Long deviceId = 1L;
+        Device device = getDevice();
+        device.setVersion(3L);
+        when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(device));
+        when(deviceRepository.updateById(eq(deviceId), any(), any(), any(), any(), eq(3L))).thenReturn(1);
+
+        deviceService.getDeviceById(deviceId);
+        DeviceResponseDTO result = deviceService.updateDevice(deviceId, new DeviceRequestDTO("Updated Device Name", "Updated Brand"), 3L);
 
+        assertEquals("Updated Device Name", result.name());
+        assertEquals(device.getCreatedAt(), result.createdAt());
+        assertEquals(4L, result.version());
+        assertEquals(result, deviceService.getDeviceById(deviceId));
         verify(deviceRepository, times(1)).findById(deviceId);
-        verify(deviceRepository, times(1)).save(existingDevice);
+        verify(deviceRepository, never()).findResponseById(any());
     }
 
     @Test
@@ -157,23 +425,61 @@ class DeviceServiceTest {
         Long deviceId = 1L;
         DeviceRequestDTO requestDTO = new DeviceRequestDTO("Updated Device Name", "Updated Brand");
 
-        when(deviceRepository.findById(deviceId)).thenReturn(Optional.empty());
+        when(deviceRepository.updateById(eq(deviceId), any(), any(), any(), any(), any())).thenReturn(0);
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
                 deviceService.updateDevice(deviceId, requestDTO));
         assertEquals("Device with id 1 not found", exception.getMessage());
 
-        verify(deviceRepository, times(1)).findById(deviceId);
-        verify(deviceRepository, never()).save(any());
+        verify(deviceRepository, never()).findResponseById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateDevice_shouldThrowPreconditionFailedException_whenVersionHasChanged() {
+        Long deviceId = 1L;
+        when(deviceRepository.updateById(eq(deviceId), any(), any(), any(), any(), eq(3L))).thenReturn(0);
+        when(deviceRepository.existsById(deviceId)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () ->
+                deviceService.updateDevice(deviceId, new DeviceRequestDTO("Updated Device Name", "Updated Brand"), 3L));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteDevice_shouldThrowResourceNotFoundException_whenExpectedVersionIsGivenForMissingDevice() {
+        Long deviceId = 1L;
+        when(deviceRepository.deleteDirectlyById(deviceId, 3L)).thenReturn(0);
+        when(deviceRepository.existsById(deviceId)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> deviceService.deleteDevice(deviceId, 3L));
+
+        verifyNoInteractions(deviceTombstoneRepository);
     }
 
     @Test
-    void deleteDevice_shouldCallDeleteById() {
+    void deleteDevice_shouldDeleteDeviceAndRecordTombstone() {
         Long deviceId = 1L;
+        when(deviceRepository.deleteDirectlyById(deviceId, null)).thenReturn(1);
 
         deviceService.deleteDevice(deviceId);
 
-        verify(deviceRepository, times(1)).deleteById(deviceId);
+        verify(deviceRepository, never()).findById(any());
+        verify(deviceTombstoneRepository, times(1)).save(any(DeviceTombstone.class));
+        verify(eventPublisher, times(1)).publishEvent(DeviceEvent.deleted(deviceId));
+    }
+
+    @Test
+    void deleteDevice_shouldThrowResourceNotFoundException_whenDeviceDoesNotExist() {
+        Long deviceId = 1L;
+        when(deviceRepository.deleteDirectlyById(deviceId, null)).thenReturn(0);
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
+                deviceService.deleteDevice(deviceId));
+        assertEquals("Device with id 1 not found", exception.getMessage());
+
+        verifyNoInteractions(deviceTombstoneRepository);
     }
 
     @Test
@@ -219,12 +525,9 @@ class DeviceServiceTest {
         Long deviceId = 1L;
         DeviceRequestDTO requestDTO = new DeviceRequestDTO("Updated Device Name", null);
 
-        Device existingDevice = new Device("Old Device Name", "Existing Brand");
-        existingDevice.setId(deviceId);
-        existingDevice.setCreatedAt(LocalDateTime.now());
-
-        when(deviceRepository.findById(deviceId)).thenReturn(Optional.of(existingDevice));
-        when(deviceRepository.save(existingDevice)).thenReturn(existingDevice);
+        when(deviceRepository.patchById(eq(deviceId), eq("Updated Device Name"), isNull(), isNull(), any(), isNull())).thenReturn(1);
+        when(deviceRepository.findResponseById(deviceId))
+                .thenReturn(Optional.of(new DeviceResponseDTO(deviceId, "Updated Device Name", "Existing Brand", LocalDateTime.now(), 1L)));
 
         DeviceResponseDTO result = deviceService.partialUpdateDevice(deviceId, requestDTO);
 
@@ -234,8 +537,8 @@ class DeviceServiceTest {
         assertEquals("Existing Brand", result.brand());
         assertNotNull(result.createdAt());
 
-        verify(deviceRepository, times(1)).findById(deviceId);
-        verify(deviceRepository, times(1)).save(existingDevice);
+        verify(deviceRepository, never()).findById(any());
+        verify(deviceRepository, never()).save(any());
     }
 
     @Test
@@ -243,13 +546,129 @@ class DeviceServiceTest {
         Long deviceId = 1L;
         DeviceRequestDTO requestDTO = new DeviceRequestDTO("Updated Device Name", "Updated Brand");
 
-        when(deviceRepository.findById(deviceId)).thenReturn(Optional.empty());
+        when(deviceRepository.patchById(eq(deviceId), any(), any(), any(), any(), any())).thenReturn(0);
 
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
                 deviceService.partialUpdateDevice(deviceId, requestDTO));
         assertEquals("Device with id 1 not found", exception.getMessage());
 
-        verify(deviceRepository, times(1)).findById(deviceId);
-        verify(deviceRepository, never()).save(any());
+        verify(deviceRepository, never()).findResponseById(any());
+    }
+
+    @Test
+    void listAllDevices_shouldReturnSliceWithNextCursor_whenMoreDevicesExist() {
+        Device device1 = getDevice();
+        Device device2 = new Device("Device TEST2", "Brand TEST");
+        device2.setId(2L);
+        Device device3 = new Device("Device TEST3", "Brand TEST");
+        device3.setId(3L);
+
+        when(deviceRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(device1, device2, device3));
+        when(deviceRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class))).thenReturn(List.of(device3));
+
+        CursorPageDTO<DeviceResponseDTO> first = deviceService.listAllDevices("", 5);
+
+        assertEquals(2, first.size());
+        assertEquals(List.of(1L, 2L), first.content().stream().map(DeviceResponseDTO::id).toList());
+        assertNotNull(first.nextCursor());
+
+        CursorPageDTO<DeviceResponseDTO> second = deviceService.listAllDevices(first.nextCursor(), 5);
+
+        assertEquals(1, second.size());
+        assertEquals(3L, second.content().get(0).id());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void getDevicesByBrand_shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> deviceService.getDevicesByBrand("Brand TEST", BrandMatch.EXACT, "not a cursor", 10));
+
+        verifyNoInteractions(deviceRepository);
+    }
+
+    @Test
+    void getDevicesByBrand_shouldMatchSeveralBrandsIgnoringCase() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Device device = getDevice();
+
+        when(deviceRepository.findAllByBrandNormalizedIn(List.of("brand test", "other"), pageable))
+                .thenReturn(new PageImpl<>(List.of(device), pageable, 1));
+
+        Page<DeviceResponseDTO> result = deviceService.getDevicesByBrand("Brand TEST, OTHER", BrandMatch.IGNORE_CASE, pageable);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Brand TEST", result.getContent().get(0).brand());
+    }
+
+    @Test
+    void getDevicesByBrand_shouldMatchPrefixIgnoringCase() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(deviceRepository.findAllByBrandNormalizedStartingWith("bra", pageable))
+                .thenReturn(new PageImpl<>(List.of(getDevice()), pageable, 1));
+
+        Page<DeviceResponseDTO> result = deviceService.getDevicesByBrand("BRA", BrandMatch.PREFIX, pageable);
+
+        assertEquals(1, result.getContent().size());
+    }
+
+    @Test
+    void listAllDevices_shouldReadOnlySelectedFields() {
+        Set<DeviceField> fields = DeviceField.parse("name");
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<DeviceResponseDTO> page = new PageImpl<>(List.of(new DeviceResponseDTO(1L, "Device TEST", null, null)));
+        when(deviceRepository.findProjected(null, fields, pageable)).thenReturn(page);
+
+        assertSame(page, deviceService.listAllDevices(pageable, fields));
+
+        verify(deviceRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void listAllDevices_shouldLoadDevices_whenAllFieldsAreSelected() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(deviceRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(getDevice())));
+
+        Page<DeviceResponseDTO> page = deviceService.listAllDevices(pageable, DeviceField.parse(null));
+
+        assertEquals("Brand TEST", page.getContent().get(0).brand());
+        verify(deviceRepository, never()).findProjected(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void getDevicesByBrand_shouldReturnSliceOfSelectedFields() {
+        Set<DeviceField> fields = DeviceField.parse("id");
+        when(deviceRepository.findProjected(any(), eq(fields), eq(Sort.by("id")), any(Limit.class)))
+                .thenReturn(List.of(
+                        new DeviceResponseDTO(1L, null, null, null),
+                        new DeviceResponseDTO(2L, null, null, null),
+                        new DeviceResponseDTO(3L, null, null, null)));
+
+        CursorPageDTO<DeviceResponseDTO> slice = deviceService.getDevicesByBrand("apple", BrandMatch.IGNORE_CASE, "", 2, fields);
+
+        assertEquals(2, slice.size());
+        assertEquals(2L, slice.content().get(1).id());
+        assertNotNull(slice.nextCursor());
+    }
+
+    @Test
+    void parseFields_shouldRejectUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> DeviceField.parse("name,serial"));
+        assertEquals(EnumSet.of(DeviceField.ID, DeviceField.NAME), DeviceField.parse(" name "));
+    }
+
+    @Test
+    void getDevicesByBrand_shouldRejectSeveralPrefixes() {
+        assertThrows(IllegalArgumentException.class, () ->
+                deviceService.getDevicesByBrand("a,b", BrandMatch.PREFIX, PageRequest.of(0, 10)));
+
+        verifyNoInteractions(deviceRepository);
+    }
+
+    private DeviceService replicatedService() {
+        DeviceRegistryProperties properties = TestDeviceRegistryProperties.with(Map.of(
+                "replica.jdbc-url", "jdbc:postgresql://replica:5432/devices"));
+        return new DeviceService(deviceRepository, deviceTombstoneRepository, properties, new DeviceCache(properties),
+                eventPublisher, new DeviceIndex(deviceRepository, properties), transactionManager, new SimpleMeterRegistry());
     }
-}
\ No newline at end of file
+}